@@ -0,0 +1,4 @@
+import { as as o } from "./copilot/copilot-C3Q8RayU.js";
+export {
+  o as _registerImporter
+};
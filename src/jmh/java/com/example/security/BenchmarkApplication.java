@@ -0,0 +1,101 @@
+package com.example.security;
+
+import com.example.security.config.OAuth2HttpClientConfig;
+import com.example.security.filter.FailedHeaderAuthLimiter;
+import com.example.security.filter.HeaderAuthenticationFilter;
+import com.example.security.filter.TrustedProxies;
+import com.example.security.metrics.AuthenticationMetrics;
+import com.example.security.user.CustomOAuth2UserService;
+import com.example.security.user.CustomUserDetailsService;
+import com.example.security.user.LoginActivityRecorder;
+import com.example.security.user.OAuth2LoginCache;
+import com.example.security.user.PrincipalCache;
+import com.example.security.user.User;
+import com.example.security.user.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Minimal, non-web Spring context for the JMH benchmarks: the authentication
+ * services and filters on top of an in-memory H2 database, without Vaadin.
+ */
+@SpringBootConfiguration
+@ImportAutoConfiguration({
+    DataSourceAutoConfiguration.class,
+    FlywayAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    TransactionAutoConfiguration.class,
+    JdbcTemplateAutoConfiguration.class,
+    MetricsAutoConfiguration.class,
+    SimpleMetricsExportAutoConfiguration.class
+})
+@EntityScan(basePackageClasses = User.class)
+@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+@Import({
+    AuthenticationMetrics.class,
+    PrincipalCache.class,
+    LoginActivityRecorder.class,
+    CustomUserDetailsService.class,
+    OAuth2HttpClientConfig.class,
+    OAuth2LoginCache.class,
+    CustomOAuth2UserService.class,
+    FailedHeaderAuthLimiter.class,
+    TrustedProxies.class,
+    HeaderAuthenticationFilter.class
+})
+public class BenchmarkApplication {
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.security=WARN"
+        ));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .logStartupInfo(false)
+            .run(args.toArray(String[]::new));
+
+        seed(context.getBean(UserRepository.class));
+        return context;
+    }
+
+    private static void seed(UserRepository userRepository) {
+        User adUser = new User("john.doe", "john.doe@company.com");
+        adUser.setFirstName("John");
+        adUser.setLastName("Doe");
+        adUser.addRole(User.Role.USER);
+        adUser.setAuthMethod("HEADER");
+        userRepository.save(adUser);
+
+        User oidcUser = new User("jane.roe", "jane.roe@example.com");
+        oidcUser.setFirstName("Jane");
+        oidcUser.setLastName("Roe");
+        oidcUser.addRole(User.Role.USER);
+        oidcUser.addRole(User.Role.MANAGER);
+        oidcUser.setAuthMethod("OAUTH2_KEYCLOAK");
+        userRepository.save(oidcUser);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.security.filter;
+
+import com.example.security.BenchmarkApplication;
+import jakarta.servlet.FilterChain;
+import java.io.IOException;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * {@link HeaderAuthenticationFilter} with an empty SecurityContext, i.e. the path
+ * every proxied request takes that is not yet authenticated.
+ */
+@State(Scope.Benchmark)
+public class HeaderAuthenticationBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean principalCache;
+
+    @Param({ "per-request", "session-sticky" })
+    public String headerAuthMode;
+
+    private ConfigurableApplicationContext context;
+    private HeaderAuthenticationFilter filter;
+    private final MockHttpSession session = new MockHttpSession();
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+            "app.security.principal-cache.enabled=" + principalCache,
+            "app.security.header-auth.mode=" + headerAuthMode);
+        filter = context.getBean(HeaderAuthenticationFilter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Authentication authenticateKnownUser() throws ServletException, IOException {
+        return authenticate("john.doe");
+    }
+
+    @Benchmark
+    public Authentication authenticateUnknownUser() throws ServletException, IOException {
+        return authenticate("nobody");
+    }
+
+    private Authentication authenticate(String username) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard");
+        request.addHeader("X_AUTH_USER", username);
+        request.setSession(session);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
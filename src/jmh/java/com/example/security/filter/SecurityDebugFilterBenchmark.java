@@ -0,0 +1,85 @@
+package com.example.security.filter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+/**
+ * Per-request overhead of {@link SecurityDebugFilter} at different sample rates.
+ * Sampled records are logged as JSON and written to a null stream, so the numbers
+ * exclude I/O.
+ */
+@State(Scope.Benchmark)
+public class SecurityDebugFilterBenchmark {
+
+    @Param({ "0.0", "0.01", "1.0" })
+    public double sampleRate;
+
+    private SecurityDebugFilter filter;
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() {
+        filter = new SecurityDebugFilter(sampleRate, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.BOTH, 256);
+
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %-5level [%thread] %logger - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        Logger logger = loggerContext.getLogger(SecurityDebugFilter.class);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+    }
+
+    @Benchmark
+    public int filterRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/VAADIN/build/bundle.js");
+        request.addHeader("X_AUTH_USER", "john.doe");
+        request.addHeader("Accept", "*/*");
+        request.addHeader("Accept-Language", "de-DE,de;q=0.9");
+        request.addHeader("Cookie", "JSESSIONID=0123456789ABCDEF");
+        request.addHeader("User-Agent", "Mozilla/5.0");
+        request.addHeader("X-Forwarded-For", "10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        SecurityContextHolder.getContext().setAuthentication(
+            new PreAuthenticatedAuthenticationToken("john.doe", null, List.of()));
+        try {
+            filter.doFilter(request, response, chain);
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
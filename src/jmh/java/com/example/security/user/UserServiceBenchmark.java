@@ -0,0 +1,79 @@
+package com.example.security.user;
+
+import com.example.security.BenchmarkApplication;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+/**
+ * Principal loading in {@link CustomUserDetailsService} and the local part of the
+ * OIDC login in {@link CustomOAuth2UserService} (without the user-info call).
+ */
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean principalCache;
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailsService userDetailsService;
+    private CustomOAuth2UserService oauth2UserService;
+    private OAuth2UserRequest userRequest;
+    private OAuth2User oauth2User;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("app.security.principal-cache.enabled=" + principalCache);
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        oauth2UserService = context.getBean(CustomOAuth2UserService.class);
+
+        ClientRegistration registration = ClientRegistration.withRegistrationId("keycloak")
+            .clientId("spring-boot-app")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .authorizationUri("http://localhost/auth")
+            .tokenUri("http://localhost/token")
+            .userInfoUri("http://localhost/userinfo")
+            .userNameAttributeName("preferred_username")
+            .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+            "token", Instant.now(), Instant.now().plusSeconds(3600));
+        userRequest = new OAuth2UserRequest(registration, accessToken);
+        oauth2User = new DefaultOAuth2User(Set.of(new SimpleGrantedAuthority("OAUTH2_USER")), Map.of(
+            "preferred_username", "jane.roe",
+            "email", "jane.roe@example.com",
+            "given_name", "Jane",
+            "family_name", "Roe"), "preferred_username");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("john.doe");
+    }
+
+    @Benchmark
+    public OAuth2User processOAuth2User() {
+        return oauth2UserService.processOAuth2User(userRequest, oauth2User);
+    }
+}
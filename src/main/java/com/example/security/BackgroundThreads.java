@@ -0,0 +1,32 @@
+package com.example.security;
+
+import java.util.concurrent.ThreadFactory;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Thread factories for the application's own background executors. With
+ * {@code spring.threads.virtual.enabled} on a Java 21+ runtime they create virtual
+ * threads, like Spring Boot does for Tomcat and its task executors; otherwise named
+ * platform daemon threads.
+ */
+public final class BackgroundThreads {
+
+    private BackgroundThreads() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+    }
+
+    public static ThreadFactory factory(String name, boolean virtualThreads) {
+        if (virtualThreads && virtualThreadsSupported()) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -15,6 +15,10 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.List;
 
 @SpringBootApplication
 @Theme(value = "dual-auth-security")
@@ -34,9 +38,10 @@ public class DualAuthSecurityApplication implements AppShellConfigurator {
     }
 
     /**
-     * Initialisiert Demo-Daten beim Start der Anwendung
+     * Initialisiert Demo-Daten beim Start der Anwendung, vor dem StartupWarmup
      */
     @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
     CommandLineRunner initDatabase(@Autowired UserRepository userRepository) {
         return args -> {
             logger.info("Initializing demo data...");
@@ -50,7 +55,6 @@ public class DualAuthSecurityApplication implements AppShellConfigurator {
                 admin.addRole(User.Role.ADMIN);
                 admin.addRole(User.Role.USER);
                 admin.setAuthMethod("DEMO");
-                userRepository.save(admin);
 
                 // Regular User
                 User user = new User("user", "user@example.com");
@@ -58,7 +62,6 @@ public class DualAuthSecurityApplication implements AppShellConfigurator {
                 user.setLastName("User");
                 user.addRole(User.Role.USER);
                 user.setAuthMethod("DEMO");
-                userRepository.save(user);
 
                 // Manager User
                 User manager = new User("manager", "manager@example.com");
@@ -67,7 +70,6 @@ public class DualAuthSecurityApplication implements AppShellConfigurator {
                 manager.addRole(User.Role.MANAGER);
                 manager.addRole(User.Role.USER);
                 manager.setAuthMethod("DEMO");
-                userRepository.save(manager);
 
                 // Header Auth User (simuliert AD-User)
                 User adUser = new User("john.doe", "john.doe@company.com");
@@ -75,7 +77,9 @@ public class DualAuthSecurityApplication implements AppShellConfigurator {
                 adUser.setLastName("Doe");
                 adUser.addRole(User.Role.USER);
                 adUser.setAuthMethod("HEADER");
-                userRepository.save(adUser);
+
+                // Ein Aufruf, eine Transaktion: die Inserts gehen als JDBC-Batch raus
+                userRepository.saveAll(List.of(admin, user, manager, adUser));
 
                 logger.info("Demo users created:");
                 logger.info("- admin/admin@example.com (ADMIN, USER)");
@@ -0,0 +1,122 @@
+package com.example.security.config;
+
+import com.example.security.jwt.AudienceValidator;
+import com.example.security.jwt.CachingJwtDecoder;
+import com.example.security.jwt.EnabledUserJwtAuthenticationConverter;
+import com.example.security.jwt.KeycloakRoleConverter;
+import com.example.security.user.CustomUserDetailsService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Local validation of Keycloak-issued bearer tokens for the /api/** chain.
+ * The JWK set is fetched through the shared client of {@link OAuth2HttpClientConfig},
+ * cached in memory and refreshed in the background before it expires; decoded
+ * tokens are cached by {@link CachingJwtDecoder}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.jwt.enabled", havingValue = "true", matchIfMissing = true)
+public class JwtResourceServerConfig {
+
+	@Value("${app.security.jwt.issuer-uri:${spring.security.oauth2.client.provider.keycloak.issuer-uri}}")
+	private String issuerUri;
+
+	@Value("${app.security.jwt.jwk-set-uri:}")
+	private String jwkSetUri;
+
+	@Value("${app.security.jwt.jwk-cache-ttl:15m}")
+	private Duration jwkCacheTtl;
+
+	@Value("${app.security.jwt.jwk-refresh-ahead:1m}")
+	private Duration jwkRefreshAhead;
+
+	@Value("${app.security.jwt.token-cache-ttl:5m}")
+	private Duration tokenCacheTtl;
+
+	@Value("${app.security.jwt.token-cache-max-size:10000}")
+	private long tokenCacheMaxSize;
+
+	// Clients a token must be issued for (aud or azp); by default the login client itself
+	@Value("${app.security.jwt.audiences:${spring.security.oauth2.client.registration.keycloak.client-id}}")
+	private List<String> audiences;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	// Shared pooled client from OAuth2HttpClientConfig
+	@Autowired
+	@Qualifier("oauth2RequestFactory")
+	private ClientHttpRequestFactory requestFactory;
+
+	@Bean
+	public CachingJwtDecoder jwtDecoder() throws MalformedURLException {
+		// Keycloak publishes its keys below the realm issuer
+		String keysUri = jwkSetUri.isBlank() ? issuerUri + "/protocol/openid-connect/certs" : jwkSetUri;
+
+		JWKSource<SecurityContext> jwkSource = JWKSourceBuilder.<SecurityContext>create(URI.create(keysUri).toURL(), jwkSetRetriever())
+			.cache(jwkCacheTtl.toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+			.refreshAheadCache(jwkRefreshAhead.toMillis(), true)
+			.build();
+
+		DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+		processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+		// Claims are validated by Spring's JwtValidators below
+		processor.setJWTClaimsSetVerifier((claims, context) -> {
+		});
+
+		NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+		decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+			JwtValidators.createDefaultWithIssuer(issuerUri), new AudienceValidator(audiences)));
+		return new CachingJwtDecoder(decoder, tokenCacheTtl, tokenCacheMaxSize);
+	}
+
+	private ResourceRetriever jwkSetRetriever() {
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		return url -> {
+			try {
+				ResponseEntity<String> response = restTemplate.getForEntity(url.toURI(), String.class);
+				MediaType contentType = response.getHeaders().getContentType();
+				return new Resource(response.getBody(), contentType != null ? contentType.toString() : null);
+			} catch (URISyntaxException | RestClientException e) {
+				// Nimbus reports IOExceptions as key source unavailable and keeps serving cached keys
+				throw new IOException("Couldn't retrieve JWK set from " + url + ": " + e.getMessage(), e);
+			}
+		};
+	}
+
+	@Bean
+	public EnabledUserJwtAuthenticationConverter jwtAuthenticationConverter() {
+		JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+		converter.setPrincipalClaimName("preferred_username");
+		converter.setJwtGrantedAuthoritiesConverter(new KeycloakRoleConverter());
+		return new EnabledUserJwtAuthenticationConverter(converter, userDetailsService);
+	}
+}
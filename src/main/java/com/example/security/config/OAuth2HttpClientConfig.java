@@ -0,0 +1,143 @@
+package com.example.security.config;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * One HTTP client for all calls to the identity provider: the token endpoint, the
+ * user-info endpoint and the JWK sets (ID tokens here, bearer tokens in
+ * {@link JwtResourceServerConfig}). The JDK client keeps connections alive and
+ * reuses them, negotiates HTTP/2 where the server supports it, and every call is
+ * bounded by a connect and a read timeout.
+ */
+@Configuration
+public class OAuth2HttpClientConfig {
+
+	@Value("${app.security.http-client.connect-timeout:2s}")
+	private Duration connectTimeout;
+
+	@Value("${app.security.http-client.read-timeout:5s}")
+	private Duration readTimeout;
+
+	@Value("${app.security.http-client.http2:true}")
+	private boolean http2;
+
+	@Bean
+	public HttpClient oauth2HttpClient() {
+		return HttpClient.newBuilder()
+			.version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+			.connectTimeout(connectTimeout)
+			.followRedirects(HttpClient.Redirect.NEVER)
+			.build();
+	}
+
+	@Bean
+	public ClientHttpRequestFactory oauth2RequestFactory(@Qualifier("oauth2HttpClient") HttpClient httpClient) {
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(readTimeout);
+		return new InterceptingClientHttpRequestFactory(requestFactory, List.of(OAuth2HttpClientConfig::translateTimeout));
+	}
+
+	// When the read timeout cancels the pending response, JdkClientHttpRequest can let the raw
+	// CancellationException escape; as an IOException it becomes a regular client error
+	private static ClientHttpResponse translateTimeout(HttpRequest request, byte[] body,
+		ClientHttpRequestExecution execution) throws IOException {
+		try {
+			return execution.execute(request, body);
+		} catch (CancellationException e) {
+			throw new HttpTimeoutException("Request to " + request.getURI() + " timed out");
+		}
+	}
+
+	// User-info calls, with the error handling DefaultOAuth2UserService expects
+	@Bean
+	public RestOperations oauth2RestOperations(
+		@Qualifier("oauth2RequestFactory") ClientHttpRequestFactory requestFactory) {
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+		return restTemplate;
+	}
+
+	@Bean
+	public OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> authorizationCodeTokenResponseClient(
+		@Qualifier("oauth2RequestFactory") ClientHttpRequestFactory requestFactory) {
+		RestClientAuthorizationCodeTokenResponseClient client = new RestClientAuthorizationCodeTokenResponseClient();
+		client.setRestClient(RestClient.builder()
+			.requestFactory(requestFactory)
+			.messageConverters(converters -> {
+				converters.clear();
+				converters.add(new FormHttpMessageConverter());
+				converters.add(new OAuth2AccessTokenResponseHttpMessageConverter());
+			})
+			.defaultStatusHandler(new OAuth2ErrorResponseErrorHandler())
+			.build());
+		return client;
+	}
+
+	// The single OidcUserService instance; CustomOAuth2UserService delegates to it
+	@Bean
+	public OidcUserService oidcUserService(@Qualifier("oauth2RestOperations") RestOperations restOperations) {
+		DefaultOAuth2UserService userInfoService = new DefaultOAuth2UserService();
+		userInfoService.setRestOperations(restOperations);
+
+		OidcUserService oidcUserService = new OidcUserService();
+		oidcUserService.setOauth2UserService(userInfoService);
+		return oidcUserService;
+	}
+
+	/**
+	 * ID token decoders as built by {@link OidcIdTokenDecoderFactory} (RS256, the same
+	 * validators and claim conversion), but fetching the JWK set through the shared client.
+	 */
+	@Bean
+	public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory(
+		@Qualifier("oauth2RequestFactory") ClientHttpRequestFactory requestFactory) {
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+		return registration -> decoders.computeIfAbsent(registration.getRegistrationId(), id -> {
+			NimbusJwtDecoder decoder = NimbusJwtDecoder
+				.withJwkSetUri(registration.getProviderDetails().getJwkSetUri())
+				.restOperations(restTemplate)
+				.build();
+			decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+				new JwtTimestampValidator(), new OidcIdTokenValidator(registration)));
+			decoder.setClaimSetConverter(OidcIdTokenDecoderFactory.createDefaultClaimTypeConverter());
+			return decoder;
+		});
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.security.config;
+
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+/**
+ * Route authorization based on {@link User.Role} bitmasks.
+ * <p>
+ * The required roles of a route are compiled into a mask once; a request is granted
+ * when the principal is authenticated and holds at least one of the required roles.
+ * A rule without roles only requires authentication.
+ */
+public final class RoleAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+	private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+	private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+	private final int requiredMask;
+
+	private RoleAuthorizationManager(int requiredMask) {
+		this.requiredMask = requiredMask;
+	}
+
+	public static RoleAuthorizationManager authenticated() {
+		return new RoleAuthorizationManager(0);
+	}
+
+	public static RoleAuthorizationManager anyRole(User.Role... roles) {
+		return new RoleAuthorizationManager(RoleAuthorities.toMask(List.of(roles)));
+	}
+
+	@Override
+	public AuthorizationResult authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+		Authentication current = authentication.get();
+		if (current == null || !current.isAuthenticated() || current instanceof AnonymousAuthenticationToken) {
+			return DENIED;
+		}
+		if (requiredMask == 0) {
+			return GRANTED;
+		}
+		return (RoleAuthorities.maskOf(current.getAuthorities()) & requiredMask) != 0 ? GRANTED : DENIED;
+	}
+
+	// Still abstract in AuthorizationManager; Spring Security calls authorize(...)
+	@Deprecated
+	@Override
+	public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+		return (AuthorizationDecision) authorize(authentication, context);
+	}
+
+	@Override
+	public String toString() {
+		return "RoleAuthorizationManager[roles=" + RoleAuthorities.fromMask(requiredMask) + "]";
+	}
+}
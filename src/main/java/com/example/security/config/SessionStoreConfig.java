@@ -0,0 +1,87 @@
+package com.example.security.config;
+
+import com.example.security.session.CompactSessionSerializer;
+import com.example.security.session.TouchThrottlingSessionRepository;
+import com.example.security.user.OAuth2LoginCache;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.PostgreSqlJdbcIndexedSessionRepositoryCustomizer;
+
+/**
+ * Tuning for the JDBC session store, which Spring Boot sets up from
+ * {@code spring.session.jdbc.*} on the application datasource: compact attribute
+ * serialization, attribute upserts and throttled last-access writes.
+ */
+@Configuration
+public class SessionStoreConfig {
+
+	// H2 counterpart of the PostgreSQL ON CONFLICT upsert from Spring Session
+	private static final String H2_CREATE_SESSION_ATTRIBUTE_QUERY = """
+		MERGE INTO %TABLE_NAME%_ATTRIBUTES (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES)
+		KEY (SESSION_PRIMARY_ID, ATTRIBUTE_NAME)
+		VALUES (?, ?, ?)
+		""";
+
+	// Picked up by name by Spring Session for all attribute reads and writes
+	@Bean
+	public ConversionService springSessionConversionService(OAuth2LoginCache oauth2LoginCache) {
+		CompactSessionSerializer serializer =
+			new CompactSessionSerializer(getClass().getClassLoader(), oauth2LoginCache);
+		GenericConversionService conversionService = new GenericConversionService();
+		conversionService.addConverter(Object.class, byte[].class, serializer::serialize);
+		conversionService.addConverter(byte[].class, Object.class, serializer::deserialize);
+		return conversionService;
+	}
+
+	/**
+	 * Attribute inserts become upserts: concurrent requests of one session (Vaadin sends
+	 * several) can add the same attribute, and a plain INSERT fails on the primary key.
+	 */
+	@Bean
+	public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> sessionAttributeUpsert(DataSource dataSource) {
+		return repository -> {
+			switch (databaseDriver(dataSource)) {
+				case POSTGRESQL -> new PostgreSqlJdbcIndexedSessionRepositoryCustomizer().customize(repository);
+				case H2 -> repository.setCreateSessionAttributeQuery(H2_CREATE_SESSION_ATTRIBUTE_QUERY);
+				default -> {
+				}
+			}
+		};
+	}
+
+	// Static: post-processors are created before the regular configuration beans
+	@Bean
+	public static BeanPostProcessor sessionTouchThrottling(
+		@Value("${app.session.touch-interval:60s}") Duration touchInterval) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof JdbcIndexedSessionRepository repository && !touchInterval.isZero()) {
+					return new TouchThrottlingSessionRepository(repository, touchInterval);
+				}
+				return bean;
+			}
+		};
+	}
+
+	private static DatabaseDriver databaseDriver(DataSource dataSource) {
+		try {
+			return DatabaseDriver.fromProductName(
+				JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+		} catch (MetaDataAccessException e) {
+			return DatabaseDriver.UNKNOWN;
+		}
+	}
+}
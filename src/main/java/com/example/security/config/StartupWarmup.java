@@ -0,0 +1,130 @@
+package com.example.security.config;
+
+import com.example.security.user.CustomUserDetailsService;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the application up before it reports ready: preloads the most recently
+ * active users into the principal cache and sends synthetic requests through the
+ * security filter chains and Vaadin route resolution.
+ * <p>
+ * Spring Boot switches the readiness state to ACCEPTING_TRAFFIC only after all
+ * runners have completed, so {@code /actuator/health/readiness} stays DOWN until
+ * the warm-up is done. Failures are logged and never block the startup. Runners that
+ * create data, such as the demo users, have to be ordered before this one.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+	private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${app.warmup.preload-users:1000}")
+	private int preloadUsers;
+
+	@Value("${app.warmup.iterations:20}")
+	private int iterations;
+
+	@Value("${app.warmup.paths:/login,/dashboard}")
+	private List<String> paths;
+
+	// Only requested as app.warmup.user; anonymous they would end at the 401 entry point
+	@Value("${app.warmup.user-paths:/api/admin/users/warmup/sessions}")
+	private List<String> userPaths;
+
+	// Optional technical account (ADMIN for the default user-paths); its last login is updated
+	@Value("${app.warmup.user:}")
+	private String warmupUser;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		long start = System.nanoTime();
+
+		try {
+			int preloaded = userDetailsService.preloadRecentUsers(preloadUsers);
+			logger.info("Warm-up: preloaded {} recently active users", preloaded);
+		} catch (RuntimeException e) {
+			logger.warn("Warm-up: preloading users failed", e);
+		}
+
+		Integer port = environment.getProperty("local.server.port", Integer.class);
+		if (port != null && port > 0) {
+			int requests = sendSyntheticRequests("http://localhost:" + port);
+			logger.info("Warm-up: sent {} synthetic requests", requests);
+		}
+
+		logger.info("Warm-up finished in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+	}
+
+	private int sendSyntheticRequests(String baseUrl) {
+		HttpClient client = HttpClient.newBuilder()
+			// One session for all iterations: exercises loading and saving it in the session
+			// store and leaves a single row behind instead of one per request
+			.cookieHandler(new CookieManager())
+			.connectTimeout(Duration.ofSeconds(2))
+			.followRedirects(HttpClient.Redirect.NEVER)
+			.build();
+
+		int sent = 0;
+		for (int i = 0; i < iterations; i++) {
+			for (String path : paths) {
+				// Anonymous: authorization, redirects, the 401 entry point and Vaadin bootstrap
+				sent += send(client, baseUrl + path, null);
+				if (!warmupUser.isEmpty()) {
+					sent += send(client, baseUrl + path, warmupUser);
+				}
+			}
+			// Controller, authorization allow path and database query behind the /api chain
+			if (!warmupUser.isEmpty()) {
+				for (String path : userPaths) {
+					sent += send(client, baseUrl + path, warmupUser);
+				}
+			}
+		}
+		if (warmupUser.isEmpty() && !userPaths.isEmpty()) {
+			logger.info("Warm-up: no app.warmup.user, skipped {}", userPaths);
+		}
+		return sent;
+	}
+
+	private int send(HttpClient client, String url, String user) {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10));
+		if (user != null) {
+			request.header("X_AUTH_USER", user);
+		}
+		try {
+			client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+			return 1;
+		} catch (Exception e) {
+			logger.debug("Warm-up request to {} failed: {}", url, e.getMessage());
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			return 0;
+		}
+	}
+}
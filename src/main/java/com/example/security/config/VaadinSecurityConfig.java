@@ -2,18 +2,35 @@
 package com.example.security.config;
 
 import com.example.security.user.CustomOAuth2UserService;
+import com.example.security.filter.HeaderAuthMode;
 import com.example.security.filter.HeaderAuthenticationFilter;
 import com.example.security.filter.SecurityDebugFilter;
+import com.example.security.jwt.EnabledUserJwtAuthenticationConverter;
+import com.example.security.session.SessionLimitStrategy;
+import com.example.security.user.User;
 import com.example.security.views.LoginView;
 import com.vaadin.flow.spring.security.VaadinWebSecurity;
-import jakarta.servlet.Filter;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
 import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 
 @Configuration
 public class VaadinSecurityConfig extends VaadinWebSecurity {
@@ -24,13 +41,78 @@ public class VaadinSecurityConfig extends VaadinWebSecurity {
 	@Autowired
 	private CustomOAuth2UserService customOAuth2UserService;
 
+	@Autowired
+	private OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> accessTokenResponseClient;
+
+	@Autowired
+	private SessionLimitStrategy sessionLimitStrategy;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	// Route rules, compiled once into role bitmasks; the first matching pattern wins
+	private static final List<Map.Entry<String, RoleAuthorizationManager>> API_ROUTE_ROLES = List.of(
+		Map.entry("/api/admin/**", RoleAuthorizationManager.anyRole(User.Role.ADMIN)),
+		Map.entry("/api/**", RoleAuthorizationManager.authenticated())
+	);
+
+	private static final RoleAuthorizationManager DASHBOARD_ACCESS = RoleAuthorizationManager.authenticated();
+
+	private static final RoleAuthorizationManager SECURITY_TRACE_ACCESS = RoleAuthorizationManager.anyRole(User.Role.ADMIN);
+
+	private static final RoleAuthorizationManager METRICS_ACCESS = RoleAuthorizationManager.anyRole(User.Role.ADMIN);
+
+	/**
+	 * Stateless chain for machine-to-machine traffic on /api/**.
+	 * Authenticates every request from the header or a Keycloak bearer token,
+	 * never creates an HttpSession and skips the request cache and CSRF
+	 * protection of the Vaadin chain.
+	 */
+	@Bean
+	@Order(1)
+	public SecurityFilterChain apiSecurityFilterChain(
+		HttpSecurity http,
+		ObjectProvider<JwtDecoder> jwtDecoder,
+		ObjectProvider<EnabledUserJwtAuthenticationConverter> jwtAuthenticationConverter
+	) throws Exception {
+		http.securityMatcher("/api/**")
+			.authorizeHttpRequests(auth -> API_ROUTE_ROLES.forEach(rule ->
+				auth.requestMatchers(rule.getKey()).access(rule.getValue())))
+			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+			.securityContext(context -> context
+				.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+			.requestCache(cache -> cache.disable())
+			.csrf(csrf -> csrf.disable())
+			.exceptionHandling(exceptions -> exceptions
+				.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+			.addFilterBefore(statelessHeaderAuthenticationFilter(), AnonymousAuthenticationFilter.class);
+
+		if (webSecurityDebug) {
+			http.addFilterBefore(securityDebugFilter(), HeaderAuthenticationFilter.class);
+		}
+
+		// Bearer tokens are validated locally against the cached Keycloak JWK set
+		JwtDecoder decoder = jwtDecoder.getIfAvailable();
+		if (decoder != null) {
+			http.oauth2ResourceServer(resourceServer -> resourceServer
+				.jwt(jwt -> jwt
+					.decoder(decoder)
+					.jwtAuthenticationConverter(jwtAuthenticationConverter.getObject())));
+		}
+		return http.build();
+	}
+
 	@Override
 	protected void configure(HttpSecurity http) throws Exception {
 		// Configure specific endpoints BEFORE calling super.configure()
 		http.authorizeHttpRequests(auth -> auth
 			.requestMatchers("/oauth2/**", "/login/oauth2/**").permitAll()
-			.requestMatchers("/api/**").authenticated()
-			.requestMatchers("/dashboard").authenticated()
+			.requestMatchers("/dashboard").access(DASHBOARD_ACCESS)
+			.requestMatchers("/actuator/securitytrace").access(SECURITY_TRACE_ACCESS)
+			// JVM, HTTP and auth metrics are internal; the scraper authenticates as an ADMIN user
+			.requestMatchers("/actuator/prometheus").access(METRICS_ACCESS)
+			// Liveness/readiness probes (readiness stays DOWN until the StartupWarmup is done)
+			.requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
 		);
 
 		// Apply Vaadin security defaults
@@ -42,7 +124,7 @@ public class VaadinSecurityConfig extends VaadinWebSecurity {
 		// Add header authentication filter before OAuth2
 		http.addFilterBefore(headerAuthenticationFilter, OAuth2LoginAuthenticationFilter.class);
 
-		// Add custom debug filter if debugging is enabled, before the HeaderAuthenticationFilter
+		// Add sampled security tracing if enabled, before the HeaderAuthenticationFilter
 		if (webSecurityDebug) {
 			http.addFilterBefore(securityDebugFilter(), HeaderAuthenticationFilter.class);
 		}
@@ -52,12 +134,18 @@ public class VaadinSecurityConfig extends VaadinWebSecurity {
 			.loginPage("/login")
 			.defaultSuccessUrl("/dashboard", true)
 			.failureUrl("/login?error")
+			// Token requests share the pooled client from OAuth2HttpClientConfig
+			.tokenEndpoint(token -> token.accessTokenResponseClient(accessTokenResponseClient))
 			.userInfoEndpoint(userInfo -> userInfo
 				.userService(customOAuth2UserService)
-				.oidcUserService(oidcUserService())
+				// OIDC logins go through the same user provisioning (and metrics) as plain OAuth2
+				.oidcUserService(customOAuth2UserService::loadOidcUser)
 			)
 		);
 
+		// Per-user session limit, applied on every interactive login
+		http.sessionManagement(session -> session.addSessionAuthenticationStrategy(sessionLimitStrategy));
+
 		// Configure logout
 		http.logout(logout -> logout
 			.logoutSuccessUrl("/login?logout")
@@ -66,17 +154,50 @@ public class VaadinSecurityConfig extends VaadinWebSecurity {
 		);
 	}
 
+	// The filters run inside the security chains only, not as plain servlet filters
 	@Bean
-	public OidcUserService oidcUserService() {
-		return new OidcUserService();
+	public FilterRegistrationBean<HeaderAuthenticationFilter> headerAuthenticationFilterRegistration(
+		HeaderAuthenticationFilter filter) {
+		FilterRegistrationBean<HeaderAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setEnabled(false);
+		return registration;
+	}
+
+	private HeaderAuthenticationFilter statelessHeaderAuthenticationFilter() {
+		HeaderAuthenticationFilter filter = new HeaderAuthenticationFilter();
+		beanFactory.autowireBean(filter);
+		filter.setMode(HeaderAuthMode.PER_REQUEST);
+		return filter;
 	}
 
 	@Value("${spring.websecurity.debug:false}")
 	boolean webSecurityDebug;
 
+	@Value("${app.security.trace.sample-rate:0.01}")
+	double traceSampleRate;
+
+	@Value("${app.security.trace.include:/**}")
+	List<String> traceIncludes;
+
+	@Value("${app.security.trace.exclude:/VAADIN/**}")
+	List<String> traceExcludes;
+
+	@Value("${app.security.trace.output:buffer}")
+	SecurityDebugFilter.Output traceOutput;
+
+	@Value("${app.security.trace.buffer-size:256}")
+	int traceBufferSize;
+
+	@Bean
+	public SecurityDebugFilter securityDebugFilter() {
+		return new SecurityDebugFilter(traceSampleRate, traceIncludes, traceExcludes, traceOutput, traceBufferSize);
+	}
+
 	@Bean
-	public Filter securityDebugFilter() {
-		return new SecurityDebugFilter();
+	public FilterRegistrationBean<SecurityDebugFilter> securityDebugFilterRegistration(SecurityDebugFilter filter) {
+		FilterRegistrationBean<SecurityDebugFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setEnabled(false);
+		return registration;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package com.example.security.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compiled set of IPv4 and IPv6 CIDR ranges, stored as a prefix trie over the address
+ * bytes (one trie per address family, 256 slots per node). A prefix that ends within
+ * a byte covers every slot sharing its leading bits, so a lookup takes at most one
+ * step per byte: 4 for IPv4, 16 for IPv6.
+ * <p>
+ * Matching parses the textual address straight into trie steps: it allocates nothing,
+ * never resolves host names, and stops at the first covered slot or missing branch.
+ * IPv4 ranges also match the IPv4-mapped IPv6 form ({@code ::ffff:10.0.0.1}).
+ * Bracketed IPv6 literals and zone ids ({@code fe80::1%eth0}) are accepted.
+ * <p>
+ * Instances are immutable once compiled.
+ */
+final class CidrMatcher {
+
+    private static final int V4_ROOT = 0;
+    private static final int V6_ROOT = 1;
+
+    // Walk results besides a node index
+    private static final int NONE = -1;
+    private static final int MATCH = -2;
+    private static final int INVALID = -3;
+
+    // insertLength of a plain lookup
+    private static final int LOOKUP = -1;
+
+    // Slot values besides a child node; 0 is never a child (node 0 is a root)
+    private static final int EMPTY = 0;
+    private static final int COVERED = -1;
+
+    private final List<String> ranges;
+    // 256 slots per node, indexed by (node << 8 | byte)
+    private int[] slots = new int[2 << 8];
+    private int nodes = 2;
+
+    private CidrMatcher(List<String> ranges) {
+        this.ranges = ranges;
+        for (String range : ranges) {
+            add(range);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if an entry is not an IP address or CIDR range
+     */
+    static CidrMatcher compile(Collection<String> ranges) {
+        return new CidrMatcher(ranges.stream().map(String::trim).filter(range -> !range.isEmpty()).toList());
+    }
+
+    List<String> ranges() {
+        return ranges;
+    }
+
+    boolean matches(CharSequence address) {
+        return address != null && matches(address, 0, address.length());
+    }
+
+    boolean matches(CharSequence address, int start, int end) {
+        return walk(address, start, end, LOOKUP) == MATCH;
+    }
+
+    @Override
+    public String toString() {
+        return ranges.toString();
+    }
+
+    private void add(String range) {
+        int slash = range.indexOf('/');
+        int end = slash < 0 ? range.length() : slash;
+        boolean ipv6 = range.lastIndexOf(':', end) >= 0;
+        int maxLength = ipv6 ? 128 : 32;
+
+        int prefixLength;
+        try {
+            prefixLength = slash < 0 ? maxLength : Integer.parseInt(range.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CIDR range: " + range);
+        }
+        if (prefixLength < 0 || prefixLength > maxLength || walk(range, 0, end, prefixLength) == INVALID) {
+            throw new IllegalArgumentException("Invalid CIDR range: " + range);
+        }
+        if (!ipv6) {
+            String mapped = "::ffff:" + range.substring(0, end);
+            walk(mapped, 0, mapped.length(), 96 + prefixLength);
+        }
+    }
+
+    /**
+     * Follows the address through the trie. With {@code insertLength >= 0} the path is
+     * created instead, and the slots covered by the first {@code insertLength} bits are
+     * marked.
+     */
+    private int walk(CharSequence s, int start, int end, int insertLength) {
+        if (end - start >= 2 && s.charAt(start) == '[' && s.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        boolean ipv6 = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == ':') {
+                ipv6 = true;
+            } else if (c == '%' && ipv6) {
+                end = i;
+                break;
+            }
+        }
+        return ipv6 ? walkIpv6(s, start, end, insertLength) : walkIpv4(s, start, end, V4_ROOT, 0, insertLength);
+    }
+
+    private int walkIpv4(CharSequence s, int start, int end, int node, int depth, int insertLength) {
+        int octets = 0;
+        int value = -1;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? s.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                value = value < 0 ? c - '0' : value * 10 + (c - '0');
+                if (value > 255) {
+                    return INVALID;
+                }
+            } else if (c == '.' && value >= 0 && octets < 4) {
+                if (node >= 0) {
+                    node = feed(node, depth, value, 1, insertLength);
+                }
+                depth += 8;
+                octets++;
+                value = -1;
+            } else {
+                return INVALID;
+            }
+        }
+        return octets == 4 ? finish(node) : INVALID;
+    }
+
+    private int walkIpv6(CharSequence s, int start, int end, int insertLength) {
+        int gap = -1;
+        for (int i = start; i + 1 < end; i++) {
+            if (s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+                if (gap >= 0) {
+                    return INVALID;
+                }
+                gap = i++;
+            }
+        }
+
+        if (gap < 0) {
+            if (countGroups(s, start, end, true) != 8) {
+                return INVALID;
+            }
+            return finish(feedGroups(s, start, end, V6_ROOT, 0, insertLength));
+        }
+
+        // "::" stands for the zero groups missing between head and tail
+        int head = countGroups(s, start, gap, false);
+        int tail = countGroups(s, gap + 2, end, true);
+        if (head < 0 || tail < 0 || head + tail > 7) {
+            return INVALID;
+        }
+        int node = feedGroups(s, start, gap, V6_ROOT, 0, insertLength);
+        int depth = 16 * head;
+        for (int group = head + tail; group < 8; group++) {
+            if (node >= 0) {
+                node = feed(node, depth, 0, 2, insertLength);
+            }
+            depth += 16;
+        }
+        return finish(feedGroups(s, gap + 2, end, node, depth, insertLength));
+    }
+
+    // Number of 16-bit groups in a colon-separated run; an IPv4 tail counts as two
+    private static int countGroups(CharSequence s, int from, int to, boolean allowIpv4Tail) {
+        if (from == to) {
+            return 0;
+        }
+        int groups = 0;
+        int length = 0;
+        boolean dotted = false;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? s.charAt(i) : ':';
+            if (c == ':') {
+                if (length == 0 || (dotted && i < to) || (!dotted && length > 4)) {
+                    return -1;
+                }
+                groups += dotted ? 2 : 1;
+                length = 0;
+            } else if (c == '.' && allowIpv4Tail) {
+                dotted = true;
+                length++;
+            } else if (hexDigit(c) < 0) {
+                return -1;
+            } else {
+                length++;
+            }
+        }
+        return groups;
+    }
+
+    // Expects a run validated by countGroups
+    private int feedGroups(CharSequence s, int from, int to, int node, int depth, int insertLength) {
+        if (from == to) {
+            return node;
+        }
+        int segmentStart = from;
+        int value = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? s.charAt(i) : ':';
+            if (c == '.') {
+                return walkIpv4(s, segmentStart, to, node, depth, insertLength);
+            }
+            if (c != ':') {
+                value = (value << 4) | hexDigit(c);
+                continue;
+            }
+            if (node >= 0) {
+                node = feed(node, depth, value, 2, insertLength);
+            }
+            depth += 16;
+            segmentStart = i + 1;
+            value = 0;
+        }
+        return node;
+    }
+
+    // Follows the lowest `bytes` bytes of value, most significant first
+    private int feed(int node, int depth, int value, int bytes, int insertLength) {
+        for (int shift = 8 * (bytes - 1); shift >= 0; shift -= 8) {
+            int slot = (node << 8) | ((value >>> shift) & 0xff);
+            int child = slots[slot];
+            if (insertLength < 0) {
+                if (child == COVERED) {
+                    return MATCH;
+                }
+                if (child == EMPTY) {
+                    return NONE;
+                }
+            } else {
+                if (child == COVERED) {
+                    // Already covered by a shorter range
+                    return MATCH;
+                }
+                int remaining = insertLength - depth;
+                if (remaining <= 8) {
+                    // The range ends within this byte: cover every slot sharing its leading bits
+                    int span = 1 << (8 - remaining);
+                    int first = slot & ~(span - 1);
+                    Arrays.fill(slots, first, first + span, COVERED);
+                    return MATCH;
+                }
+                if (child == EMPTY) {
+                    child = newNode();
+                    slots[slot] = child;
+                }
+            }
+            node = child;
+            depth += 8;
+        }
+        return node;
+    }
+
+    // Past the last byte without reaching a covered slot
+    private static int finish(int node) {
+        return node < 0 ? node : NONE;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private int newNode() {
+        if ((nodes + 1) << 8 > slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        return nodes++;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.security.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control for failed header authentications.
+ * <p>
+ * Every client address gets a token bucket; each failed header authentication that
+ * needed a database lookup (an unknown user not yet in the negative cache of
+ * {@code PrincipalCache}) takes a token, and tokens refill at a fixed rate. A client
+ * with an empty bucket is throttled: {@link HeaderAuthenticationFilter} then serves
+ * it from the principal cache only and answers everything else with 429, so a scanner
+ * or a misconfigured proxy cannot turn each request into a database lookup.
+ * <p>
+ * Warnings share one budget as well. Warnings beyond the budget are counted and
+ * reported with the next warning that is logged.
+ */
+@Component
+public class FailedHeaderAuthLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailedHeaderAuthLimiter.class);
+
+    private final boolean enabled;
+    private final int burst;
+    private final double tokensPerNano;
+    private final Cache<String, TokenBucket> clients;
+    private final TokenBucket logBudget;
+    private final AtomicLong suppressedWarnings = new AtomicLong();
+
+    public FailedHeaderAuthLimiter(
+        @Value("${app.security.header-auth.failure-limit.enabled:true}") boolean enabled,
+        @Value("${app.security.header-auth.failure-limit.burst:20}") int burst,
+        @Value("${app.security.header-auth.failure-limit.per-minute:30}") int perMinute,
+        @Value("${app.security.header-auth.failure-limit.max-clients:100000}") long maxClients,
+        @Value("${app.security.header-auth.failure-log.per-minute:10}") int warningsPerMinute
+    ) {
+        this.enabled = enabled;
+        this.burst = burst;
+        this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        // An idle bucket is full again after burst / rate; forgetting it then changes nothing
+        this.clients = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofSeconds(Math.max(60, (long) Math.ceil(burst * 60.0 / perMinute))))
+            .maximumSize(maxClients)
+            .build();
+        this.logBudget = new TokenBucket(warningsPerMinute,
+            warningsPerMinute / (double) TimeUnit.MINUTES.toNanos(1), System.nanoTime());
+    }
+
+    /**
+     * Whether the client has used up its failures and must not trigger further lookups.
+     */
+    public boolean isThrottled(String client) {
+        if (!enabled) {
+            return false;
+        }
+        TokenBucket bucket = clients.getIfPresent(client);
+        return bucket != null && bucket.nanosUntilToken(System.nanoTime()) > 0;
+    }
+
+    /**
+     * Seconds until a throttled client may fail again, for the {@code Retry-After} header.
+     */
+    public long retryAfterSeconds(String client) {
+        TokenBucket bucket = clients.getIfPresent(client);
+        long nanos = bucket == null ? 0 : bucket.nanosUntilToken(System.nanoTime());
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    public void recordFailure(String client, String username) {
+        long now = System.nanoTime();
+        if (enabled) {
+            clients.get(client, key -> new TokenBucket(burst, tokensPerNano, now)).tryConsume(now);
+        }
+        warn(now, "Header authentication failed for user: {} (client {})", username, client);
+    }
+
+    public void recordUntrusted(String remoteAddr, String username) {
+        warn(System.nanoTime(), "Header authentication ignored for user: {} (untrusted source {})", username, remoteAddr);
+    }
+
+    public void recordRejected(String client) {
+        warn(System.nanoTime(), "Header authentication throttled for client {} after {} failures", client, burst);
+    }
+
+    private void warn(long now, String message, Object first, Object second) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        if (!logBudget.tryConsume(now)) {
+            suppressedWarnings.incrementAndGet();
+            return;
+        }
+
+        long suppressed = suppressedWarnings.getAndSet(0);
+        if (suppressed > 0) {
+            logger.warn(message + " ({} similar warnings suppressed)", first, second, suppressed);
+        } else {
+            logger.warn(message, first, second);
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long updatedAt;
+
+        TokenBucket(double capacity, double tokensPerNano, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerNano;
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        synchronized boolean tryConsume(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized long nanosUntilToken(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        private void refill(long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+                updatedAt = now;
+            }
+        }
+    }
+}
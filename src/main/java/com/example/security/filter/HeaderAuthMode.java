@@ -0,0 +1,18 @@
+package com.example.security.filter;
+
+/**
+ * Controls how often {@link HeaderAuthenticationFilter} resolves the X_AUTH_USER header.
+ */
+public enum HeaderAuthMode {
+
+    /**
+     * Resolve the header on every request without a non-anonymous SecurityContext.
+     */
+    PER_REQUEST,
+
+    /**
+     * Remember the resolved token in the HTTP session and reuse it as long as the
+     * header value matches and the revalidation interval has not elapsed.
+     */
+    SESSION_STICKY
+}
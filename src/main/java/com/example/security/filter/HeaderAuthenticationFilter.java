@@ -1,24 +1,38 @@
 
 package com.example.security.filter;
 
+import com.example.security.metrics.AuthenticationMetrics;
+import com.example.security.metrics.AuthenticationMetrics.Method;
+import com.example.security.metrics.AuthenticationMetrics.Outcome;
 import com.example.security.user.CustomUserDetailsService;
+import com.example.security.user.LoginActivityRecorder;
+import com.example.security.user.PrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 // Custom Filter für Header-basierte Authentifizierung
 @Component
@@ -26,10 +40,33 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(HeaderAuthenticationFilter.class);
     private static final String AUTH_HEADER = "X_AUTH_USER";
+    static final String SESSION_ATTRIBUTE = HeaderAuthenticationFilter.class.getName() + ".AUTHENTICATION";
     
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private LoginActivityRecorder loginActivityRecorder;
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    @Autowired
+    private FailedHeaderAuthLimiter failureLimiter;
+
+    @Autowired
+    private TrustedProxies trustedProxies;
+
+    @Value("${app.security.header-auth.mode:per-request}")
+    private HeaderAuthMode mode;
+
+    @Value("${app.security.header-auth.session-revalidate:5m}")
+    private Duration sessionRevalidate;
+
+    public void setMode(HeaderAuthMode mode) {
+        this.mode = mode;
+    }
+
     @Override
     protected void doFilterInternal(
         @NonNull HttpServletRequest request, 
@@ -49,9 +86,51 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
         String username = request.getHeader(AUTH_HEADER);
         
         if (username != null && !username.trim().isEmpty()) {
+            long start = System.nanoTime();
+
+            // Header nur von vertrauenswürdigen Proxies akzeptieren, sonst wie ohne Header weiter
+            if (!trustedProxies.isTrusted(request.getRemoteAddr())) {
+                authenticationMetrics.recordAttempt(Method.HEADER, Outcome.UNTRUSTED_SOURCE, start);
+                failureLimiter.recordUntrusted(request.getRemoteAddr(), username);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            // Session-sticky: bereits aufgelöstes Token wiederverwenden
+            if (mode == HeaderAuthMode.SESSION_STICKY && restoreFromSession(request, username)) {
+                authenticationMetrics.recordAttempt(Method.HEADER, Outcome.SESSION_REUSE, start);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            // Client hinter den Proxies (X-Forwarded-For), für das Fehlversuch-Limit
+            String client = trustedProxies.resolveClient(request);
             try {
-                // Lade Nutzerdetails
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Lade Nutzerdetails; gedrosselte Clients nur noch aus dem Cache, ohne Datenbankabfrage
+                UserDetails userDetails;
+                if (failureLimiter.isThrottled(client)) {
+                    userDetails = userDetailsService.loadCachedUserByUsername(username);
+                    if (userDetails == null) {
+                        authenticationMetrics.recordAttempt(Method.HEADER, Outcome.THROTTLED, start);
+                        failureLimiter.recordRejected(client);
+                        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(failureLimiter.retryAfterSeconds(client)));
+                        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                        return;
+                    }
+                } else {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
+
+                // Deaktivierte Benutzer nicht anmelden, weiter wie ohne gültigen Header
+                if (!userDetails.isEnabled()) {
+                    logger.debug("Header authentication rejected, user disabled: {}", username);
+                    authenticationMetrics.recordAttempt(Method.HEADER, Outcome.DISABLED, start);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // Last login wird gepuffert und asynchron geschrieben
+                loginActivityRecorder.recordLogin(userDetails.getUsername(), LocalDateTime.now());
                 
                 // Erstelle Authentication Token
                 PreAuthenticatedAuthenticationToken authToken = 
@@ -61,16 +140,57 @@ public class HeaderAuthenticationFilter extends OncePerRequestFilter {
                 
                 // Setze Authentication im SecurityContext
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                if (mode == HeaderAuthMode.SESSION_STICKY) {
+                    HttpSession session = request.getSession();
+                    session.setAttribute(SESSION_ATTRIBUTE,
+                        new SessionAuthentication(username, authToken, System.currentTimeMillis()));
+                    // Benutzername indizieren, damit UserSessionRegistry auch diese Session findet
+                    session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, username);
+                }
                 
                 // Logge erfolgreiche Header-Authentifizierung
-                logger.info("User authenticated via header: " + username);
+                logger.debug("User authenticated via header: {}", username);
+                authenticationMetrics.recordAttempt(Method.HEADER, Outcome.SUCCESS, start);
                 
             } catch (UsernameNotFoundException e) {
-                logger.warn("Header authentication failed for user: " + username);
+                authenticationMetrics.recordAttempt(Method.HEADER, Outcome.UNKNOWN_USER, start);
+                // Nur echte Datenbankabfragen zählen gegen das Limit des Clients und werden geloggt
+                if (!(e instanceof PrincipalCache.CachedUnknownUserException)) {
+                    failureLimiter.recordFailure(client, username);
+                }
                 // Weiter zum OAuth2 Flow
             }
         }
         
         filterChain.doFilter(request, response);
     }
+
+    private boolean restoreFromSession(HttpServletRequest request, String username) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return false;
+        }
+
+        if (!(session.getAttribute(SESSION_ATTRIBUTE) instanceof SessionAuthentication stored)) {
+            return false;
+        }
+
+        // Header muss noch denselben Nutzer nennen, sonst neu authentifizieren
+        if (!stored.headerValue().equals(username)
+            || System.currentTimeMillis() - stored.verifiedAt() > sessionRevalidate.toMillis()) {
+            session.removeAttribute(SESSION_ATTRIBUTE);
+            return false;
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(stored.authentication());
+        return true;
+    }
+
+    private record SessionAuthentication(
+        String headerValue,
+        Authentication authentication,
+        long verifiedAt
+    ) implements Serializable {
+    }
 }
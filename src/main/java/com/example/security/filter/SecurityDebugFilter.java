@@ -8,15 +8,72 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
- * Custom filter for detailed security debugging
+ * Sampled security tracing.
+ * <p>
+ * A configurable fraction of requests whose path matches the include and not the
+ * exclude patterns is traced as one structured record (method, URI, auth type,
+ * principal, status, duration). Records go to a fixed-size ring buffer, exposed
+ * via the {@code securitytrace} actuator endpoint, and/or are logged as one JSON
+ * line. Requests that are not sampled pass through without any extra work.
+ * <p>
+ * The buffer slots are allocated once and overwritten in place, so a sampled
+ * request allocates no record; {@link TraceRecord} copies are made only when the
+ * buffer is read.
  */
 public class SecurityDebugFilter implements Filter {
 
 	private static final org.slf4j.Logger logger =
 		org.slf4j.LoggerFactory.getLogger(SecurityDebugFilter.class);
 
+	public enum Output {
+		LOG, BUFFER, BOTH
+	}
+
+	public record TraceRecord(
+		long timestamp,
+		String method,
+		String uri,
+		String authType,
+		String principal,
+		int status,
+		long durationNanos
+	) {
+	}
+
+	private final double sampleRate;
+	private final List<PathPattern> includes;
+	private final List<PathPattern> excludes;
+	private final boolean logRecords;
+	private final Slot[] buffer;
+	private final AtomicLong sequence = new AtomicLong();
+
+	public SecurityDebugFilter(double sampleRate, List<String> includes, List<String> excludes,
+		Output output, int bufferSize) {
+		this.sampleRate = sampleRate;
+		this.includes = compile(includes);
+		this.excludes = compile(excludes);
+		this.logRecords = output != Output.BUFFER;
+		this.buffer = new Slot[output == Output.LOG ? 0 : bufferSize];
+		for (int i = 0; i < buffer.length; i++) {
+			buffer[i] = new Slot();
+		}
+	}
+
 	@Override
 	public void doFilter(
 		ServletRequest request,
@@ -27,81 +84,153 @@ public class SecurityDebugFilter implements Filter {
 		HttpServletRequest httpRequest = (HttpServletRequest) request;
 		HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-		if (logger.isDebugEnabled()) {
-			logRequestDetails(httpRequest);
+		if (!isSampled(httpRequest)) {
+			chain.doFilter(request, response);
+			return;
 		}
 
-		long startTime = System.currentTimeMillis();
+		long startTime = System.nanoTime();
 
 		try {
 			chain.doFilter(request, response);
 		} finally {
-			if (logger.isDebugEnabled()) {
-				long duration = System.currentTimeMillis() - startTime;
-				logResponseDetails(httpRequest, httpResponse, duration);
+			record(httpRequest, httpResponse, System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Most recent records, oldest first.
+	 */
+	public List<TraceRecord> recentRecords() {
+		int size = buffer.length;
+		long end = sequence.get();
+		List<TraceRecord> records = new ArrayList<>(size);
+		for (long i = Math.max(0, end - size); i < end; i++) {
+			TraceRecord traceRecord = buffer[(int) (i % size)].snapshot();
+			if (traceRecord != null) {
+				records.add(traceRecord);
 			}
 		}
+		return records;
+	}
+
+	private boolean isSampled(HttpServletRequest request) {
+		if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			return false;
+		}
+		PathContainer path = PathContainer.parsePath(request.getRequestURI());
+		return matchesAny(includes, path) && !matchesAny(excludes, path);
+	}
+
+	private void record(HttpServletRequest request, HttpServletResponse response, long duration) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		long timestamp = System.currentTimeMillis();
+		String authType = authType(authentication);
+		String principal = authentication != null ? authentication.getName() : null;
+
+		if (buffer.length > 0) {
+			buffer[(int) (sequence.getAndIncrement() % buffer.length)].set(timestamp, request.getMethod(),
+				request.getRequestURI(), authType, principal, response.getStatus(), duration);
+		}
+		if (logRecords && logger.isInfoEnabled()) {
+			logger.info(toJson(timestamp, request.getMethod(), request.getRequestURI(), authType, principal,
+				response.getStatus(), duration));
+		}
 	}
 
-	private void logRequestDetails(HttpServletRequest request) {
-		logger.debug("=== SECURITY DEBUG: INCOMING REQUEST ===");
-		logger.debug("Method: {}", request.getMethod());
-		logger.debug("URI: {}", request.getRequestURI());
-		logger.debug("Query: {}", request.getQueryString());
-		logger.debug("Remote IP: {}", request.getRemoteAddr());
-		logger.debug("Session ID: {}", request.getRequestedSessionId());
-
-		// Log headers
-		logger.debug("--- Headers ---");
-		request.getHeaderNames().asIterator().forEachRemaining(headerName -> {
-			String headerValue = request.getHeader(headerName);
-			// Mask sensitive headers
-			if (headerName.toLowerCase().contains("authorization") ||
-				headerName.toLowerCase().contains("cookie")) {
-				headerValue = "***MASKED***";
+	private static String authType(Authentication authentication) {
+		if (authentication == null) {
+			return "NONE";
+		} else if (authentication instanceof AnonymousAuthenticationToken) {
+			return "ANONYMOUS";
+		} else if (authentication instanceof PreAuthenticatedAuthenticationToken) {
+			return "HEADER";
+		} else if (authentication instanceof OAuth2AuthenticationToken) {
+			return "OAUTH2";
+		} else if (authentication instanceof JwtAuthenticationToken) {
+			return "JWT";
+		}
+		return authentication.getClass().getSimpleName();
+	}
+
+	static String toJson(long timestamp, String method, String uri, String authType, String principal,
+		int status, long durationNanos) {
+		StringBuilder json = new StringBuilder(192);
+		json.append("{\"timestamp\":").append(timestamp);
+		appendField(json, "method", method);
+		appendField(json, "uri", uri);
+		appendField(json, "authType", authType);
+		appendField(json, "principal", principal);
+		json.append(",\"status\":").append(status);
+		json.append(",\"durationNanos\":").append(durationNanos);
+		return json.append('}').toString();
+	}
+
+	private static void appendField(StringBuilder json, String name, String value) {
+		json.append(",\"").append(name).append("\":");
+		if (value == null) {
+			json.append("null");
+			return;
+		}
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < 0x20) {
+				json.append(String.format("\\u%04x", (int) c));
+			} else {
+				json.append(c);
 			}
-			logger.debug("{}: {}", headerName, headerValue);
-		});
-
-		// Log authentication header specifically
-		String authHeader = request.getHeader("X_AUTH_USER");
-		if (authHeader != null) {
-			logger.debug("🔑 X_AUTH_USER Header Found: {}", authHeader);
-		} else {
-			logger.debug("❌ No X_AUTH_USER Header Found");
+		}
+		json.append('"');
+	}
+
+	/**
+	 * One reusable buffer entry. Writers and readers lock the slot, so a reader never
+	 * sees half of an overwritten record.
+	 */
+	private static final class Slot {
+
+		private boolean filled;
+		private long timestamp;
+		private String method;
+		private String uri;
+		private String authType;
+		private String principal;
+		private int status;
+		private long durationNanos;
+
+		synchronized void set(long timestamp, String method, String uri, String authType, String principal,
+			int status, long durationNanos) {
+			this.filled = true;
+			this.timestamp = timestamp;
+			this.method = method;
+			this.uri = uri;
+			this.authType = authType;
+			this.principal = principal;
+			this.status = status;
+			this.durationNanos = durationNanos;
 		}
 
-		// Log security context
-		org.springframework.security.core.context.SecurityContext securityContext =
-			org.springframework.security.core.context.SecurityContextHolder.getContext();
-		if (securityContext.getAuthentication() != null) {
-			logger.debug("🔐 Current Authentication: {}",
-				securityContext.getAuthentication().getClass().getSimpleName());
-			logger.debug("👤 Principal: {}", securityContext.getAuthentication().getName());
-			logger.debug("🏷️ Authorities: {}", securityContext.getAuthentication().getAuthorities());
-			logger.debug("✅ Is Authenticated: {}", securityContext.getAuthentication().isAuthenticated());
-		} else {
-			logger.debug("❌ No Authentication in SecurityContext");
+		synchronized TraceRecord snapshot() {
+			return filled ? new TraceRecord(timestamp, method, uri, authType, principal, status, durationNanos) : null;
 		}
 	}
 
-	private void logResponseDetails(HttpServletRequest request,
-		HttpServletResponse response, long duration) {
-		logger.debug("=== SECURITY DEBUG: RESPONSE ===");
-		logger.debug("Status: {}", response.getStatus());
-		logger.debug("Duration: {}ms", duration);
-
-		// Log final security context
-		org.springframework.security.core.context.SecurityContext securityContext =
-			org.springframework.security.core.context.SecurityContextHolder.getContext();
-		if (securityContext.getAuthentication() != null) {
-			logger.debug("🔐 Final Authentication: {}",
-				securityContext.getAuthentication().getClass().getSimpleName());
-			logger.debug("👤 Final Principal: {}", securityContext.getAuthentication().getName());
-			logger.debug("✅ Final Is Authenticated: {}", securityContext.getAuthentication().isAuthenticated());
-		} else {
-			logger.debug("❌ No Final Authentication");
+	private static List<PathPattern> compile(List<String> patterns) {
+		return patterns.stream()
+			.filter(pattern -> !pattern.isBlank())
+			.map(pattern -> PathPatternParser.defaultInstance.parse(pattern.trim()))
+			.toList();
+	}
+
+	private static boolean matchesAny(List<PathPattern> patterns, PathContainer path) {
+		for (PathPattern pattern : patterns) {
+			if (pattern.matches(path)) {
+				return true;
+			}
 		}
-		logger.debug("=====================================");
+		return false;
 	}
 }
@@ -0,0 +1,25 @@
+package com.example.security.filter;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the sampled records of {@link SecurityDebugFilter} at /actuator/securitytrace.
+ */
+@Component
+@Endpoint(id = "securitytrace")
+public class SecurityTraceEndpoint {
+
+	private final SecurityDebugFilter securityDebugFilter;
+
+	public SecurityTraceEndpoint(SecurityDebugFilter securityDebugFilter) {
+		this.securityDebugFilter = securityDebugFilter;
+	}
+
+	@ReadOperation
+	public List<SecurityDebugFilter.TraceRecord> traces() {
+		return securityDebugFilter.recentRecords();
+	}
+}
@@ -0,0 +1,186 @@
+package com.example.security.filter;
+
+import com.example.security.BackgroundThreads;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The proxies allowed to set {@code X_AUTH_USER}, as IPv4/IPv6 CIDR ranges.
+ * <p>
+ * Ranges come from {@code app.security.header-auth.trusted-proxies} and, optionally, a
+ * file with one range per line ({@code #} starts a comment). The file is checked for
+ * changes periodically and swapped in atomically; a file that does not parse is
+ * rejected and the previous ranges stay in effect.
+ * <p>
+ * The check runs on every request carrying the header and is allocation-free (see
+ * {@link CidrMatcher}). It relies on {@code getRemoteAddr()} being the direct peer,
+ * so {@code server.forward-headers-strategy} must stay unset.
+ */
+@Component
+public class TrustedProxies {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrustedProxies.class);
+
+    static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<String> configuredRanges;
+    private final Path file;
+    private final ScheduledExecutorService executor;
+
+    private volatile CidrMatcher matcher;
+    // Only touched by the constructor and the reload thread
+    private FileTime fileModified;
+
+    public TrustedProxies(
+        @Value("${app.security.header-auth.trusted-proxies:127.0.0.1/32,::1/128}") List<String> ranges,
+        @Value("${app.security.header-auth.trusted-proxies-file:}") String file,
+        @Value("${app.security.header-auth.trusted-proxies-reload-interval:10s}") Duration reloadInterval,
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.configuredRanges = List.copyOf(ranges);
+        this.file = file.isBlank() ? null : Path.of(file);
+        // Startup fails on invalid ranges or a missing file
+        this.matcher = compile();
+        logger.info("Trusted proxies for header authentication: {}", matcher);
+
+        if (this.file != null && !reloadInterval.isZero()) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(
+                BackgroundThreads.factory("trusted-proxies-reload", virtualThreads));
+            long intervalMillis = reloadInterval.toMillis();
+            this.executor.scheduleWithFixedDelay(this::reloadQuietly,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public boolean isTrusted(String remoteAddr) {
+        return matcher.matches(remoteAddr);
+    }
+
+    /**
+     * The client behind the trusted proxies: the right-most {@code X-Forwarded-For}
+     * entry that is not a trusted proxy itself. Requests that did not come through a
+     * trusted proxy are attributed to their remote address.
+     */
+    public String resolveClient(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        CidrMatcher current = matcher;
+        if (!current.matches(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        Enumeration<String> headers = request.getHeaders(X_FORWARDED_FOR);
+        if (headers == null || !headers.hasMoreElements()) {
+            return remoteAddr;
+        }
+        String forwardedFor = headers.nextElement();
+        while (headers.hasMoreElements()) {
+            forwardedFor = forwardedFor + "," + headers.nextElement();
+        }
+
+        // Walk the hops from the nearest to the farthest
+        int end = forwardedFor.length();
+        int clientStart = -1;
+        int clientEnd = -1;
+        while (end > 0) {
+            int comma = forwardedFor.lastIndexOf(',', end - 1);
+            int start = comma + 1;
+            while (start < end && forwardedFor.charAt(start) == ' ') {
+                start++;
+            }
+            int hopEnd = end;
+            while (hopEnd > start && forwardedFor.charAt(hopEnd - 1) == ' ') {
+                hopEnd--;
+            }
+            if (start < hopEnd) {
+                clientStart = start;
+                clientEnd = hopEnd;
+                if (!current.matches(forwardedFor, start, hopEnd)) {
+                    break;
+                }
+            }
+            end = Math.max(comma, 0);
+        }
+        return clientStart < 0 ? remoteAddr : forwardedFor.substring(clientStart, clientEnd);
+    }
+
+    /**
+     * Re-reads the range file if it changed since the last load.
+     *
+     * @return whether new ranges were applied
+     * @throws IllegalArgumentException if the file contains an invalid range
+     */
+    public boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        FileTime modified = lastModified();
+        if (modified.equals(fileModified)) {
+            return false;
+        }
+        // A broken file is reported once per change, not on every check
+        fileModified = modified;
+        matcher = compile();
+        logger.info("Reloaded trusted proxies from {}: {}", file, matcher);
+        return true;
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.warn("Keeping previous trusted proxies, {} could not be loaded: {}", file, e.getMessage());
+        }
+    }
+
+    private CidrMatcher compile() {
+        List<String> ranges = new ArrayList<>(configuredRanges);
+        if (file != null) {
+            FileTime modified = lastModified();
+            try {
+                for (String line : Files.readAllLines(file)) {
+                    int comment = line.indexOf('#');
+                    ranges.add(comment < 0 ? line : line.substring(0, comment));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read trusted proxies from " + file, e);
+            }
+            CidrMatcher compiled = CidrMatcher.compile(ranges);
+            fileModified = modified;
+            return compiled;
+        }
+        return CidrMatcher.compile(ranges);
+    }
+
+    private FileTime lastModified() {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read trusted proxies from " + file, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.security.jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Accepts only tokens issued for this application: {@code aud} names one of the
+ * configured clients, or {@code azp} does (Keycloak access tokens often carry only
+ * {@code aud: account} and the requesting client in {@code azp}).
+ */
+public class AudienceValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error INVALID_AUDIENCE = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN,
+        "The token was not issued for this application", null);
+
+    private final Set<String> audiences;
+
+    public AudienceValidator(Collection<String> audiences) {
+        this.audiences = Set.copyOf(audiences);
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        List<String> aud = jwt.getAudience();
+        if (aud != null && aud.stream().anyMatch(audiences::contains)) {
+            return OAuth2TokenValidatorResult.success();
+        }
+        String azp = jwt.getClaimAsString("azp");
+        if (azp != null && audiences.contains(azp)) {
+            return OAuth2TokenValidatorResult.success();
+        }
+        return OAuth2TokenValidatorResult.failure(INVALID_AUDIENCE);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.security.jwt;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Rejects bearer tokens of users that are disabled in the local database, like the
+ * header and OIDC logins do. Runs on every request, after the decoded token came from
+ * the cache, so disabling a user takes effect at once. Users without a local row keep
+ * the roles of their token.
+ */
+public class EnabledUserJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final Converter<Jwt, ? extends AbstractAuthenticationToken> delegate;
+    private final UserDetailsService userDetailsService;
+
+    public EnabledUserJwtAuthenticationConverter(Converter<Jwt, ? extends AbstractAuthenticationToken> delegate,
+                                                 UserDetailsService userDetailsService) {
+        this.delegate = delegate;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        AbstractAuthenticationToken authentication = delegate.convert(jwt);
+        UserDetails user;
+        try {
+            // Served from the principal cache, which is evicted when a user is disabled
+            user = userDetailsService.loadUserByUsername(authentication.getName());
+        } catch (UsernameNotFoundException e) {
+            return authentication;
+        }
+        if (!user.isEnabled()) {
+            throw new DisabledException("User is disabled: " + authentication.getName());
+        }
+        return authentication;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.security.jwt;
+
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Maps Keycloak realm roles ({@code realm_access.roles}) onto the application's
+ * {@link User.Role} authorities. Roles unknown to the application are ignored.
+ */
+public class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private static final String REALM_ACCESS_CLAIM = "realm_access";
+    private static final String ROLES_KEY = "roles";
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap(REALM_ACCESS_CLAIM);
+        if (realmAccess == null || !(realmAccess.get(ROLES_KEY) instanceof Collection<?> roles)) {
+            return List.of();
+        }
+
+        int mask = 0;
+        for (Object role : roles) {
+            for (User.Role candidate : User.Role.values()) {
+                if (candidate.name().equalsIgnoreCase(String.valueOf(role))) {
+                    mask |= RoleAuthorities.bit(candidate);
+                }
+            }
+        }
+        return RoleAuthorities.forMask(mask);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.security.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the authentication paths. All meters are registered up front with a
+ * fixed, low-cardinality tag set (method, outcome), so recording is a plain
+ * field access on the hot path.
+ */
+@Component
+public class AuthenticationMetrics {
+
+    public enum Method {
+        HEADER, OIDC
+    }
+
+    public enum Outcome {
+        SUCCESS, SESSION_REUSE, UNKNOWN_USER, DISABLED, THROTTLED, UNTRUSTED_SOURCE, OIDC_FAILURE
+    }
+
+    private static final Map<Method, Set<Outcome>> OUTCOMES = Map.of(
+        Method.HEADER, EnumSet.of(Outcome.SUCCESS, Outcome.SESSION_REUSE, Outcome.UNKNOWN_USER, Outcome.DISABLED,
+            Outcome.THROTTLED, Outcome.UNTRUSTED_SOURCE),
+        Method.OIDC, EnumSet.of(Outcome.SUCCESS, Outcome.DISABLED, Outcome.OIDC_FAILURE)
+    );
+
+    private final Timer userLookup;
+    private final Timer userInfoFetch;
+    private final Map<Method, Timer> total = new EnumMap<>(Method.class);
+    private final Map<Method, Map<Outcome, Counter>> attempts = new EnumMap<>(Method.class);
+
+    public AuthenticationMetrics(MeterRegistry registry) {
+        this.userLookup = Timer.builder("auth.user.lookup")
+            .description("Database lookup of a user during authentication")
+            .register(registry);
+        this.userInfoFetch = Timer.builder("auth.oidc.userinfo")
+            .description("OIDC user-info fetch and ID token processing")
+            .register(registry);
+
+        for (Method method : Method.values()) {
+            String methodTag = method.name().toLowerCase(Locale.ROOT);
+            total.put(method, Timer.builder("auth.total")
+                .description("Total time spent authenticating a request or login")
+                .tag("method", methodTag)
+                .register(registry));
+
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : OUTCOMES.get(method)) {
+                counters.put(outcome, Counter.builder("auth.attempts")
+                    .description("Authentication attempts by method and outcome")
+                    .tag("method", methodTag)
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+            }
+            attempts.put(method, counters);
+        }
+    }
+
+    public void recordUserLookup(long startNanos) {
+        userLookup.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserInfoFetch(long startNanos) {
+        userInfoFetch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAttempt(Method method, Outcome outcome, long startNanos) {
+        total.get(method).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        attempts.get(method).get(outcome).increment();
+    }
+}
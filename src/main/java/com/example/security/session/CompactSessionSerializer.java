@@ -0,0 +1,217 @@
+package com.example.security.session;
+
+import com.example.security.user.CustomOAuth2User;
+import com.example.security.user.OAuth2LoginCache;
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Converts session attributes to and from the bytes stored by Spring Session.
+ * <p>
+ * The {@link SecurityContext} of an OAuth2/OIDC login is written as a compact binary
+ * record holding just the {@link CustomOAuth2User.Summary}: user id, username, roles as a
+ * {@link RoleAuthorities} bitmask and the values the dashboard shows. Claims, ID token,
+ * user-info and the {@link User} entity stay in the {@link OAuth2LoginCache} and are
+ * resolved from there when a restored principal is asked for them.
+ * Everything else (Vaadin session, CSRF token, saved request, ...) is Java-serialized
+ * as before. Java serialization streams start with {@code 0xACED}, so the first byte
+ * tells both formats apart and rows written by the default serializer stay readable.
+ * <p>
+ * An attribute that cannot be read back (e.g. after an incompatible deployment) is
+ * dropped with a warning instead of failing every request of the session.
+ */
+public class CompactSessionSerializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactSessionSerializer.class);
+
+    // First byte of a compact record
+    private static final int SECURITY_CONTEXT = 1;
+
+    // Authentication in a SecurityContext record; 1 was the earlier record with all claims
+    private static final int NO_AUTHENTICATION = 0;
+    private static final int OAUTH2_LOGIN = 2;
+
+    private final SerializingConverter javaSerializer = new SerializingConverter();
+    private final DeserializingConverter javaDeserializer;
+    private final OAuth2LoginCache loginCache;
+
+    public CompactSessionSerializer(ClassLoader classLoader, OAuth2LoginCache loginCache) {
+        this.javaDeserializer = new DeserializingConverter(classLoader);
+        this.loginCache = loginCache;
+    }
+
+    public byte[] serialize(Object attribute) {
+        if (attribute instanceof SecurityContext context && isCompact(context.getAuthentication())) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(SECURITY_CONTEXT);
+                writeAuthentication(out, context.getAuthentication());
+            } catch (IOException e) {
+                throw new SerializationFailedException("Cannot write security context", e);
+            }
+            return bytes.toByteArray();
+        }
+        return javaSerializer.convert(attribute);
+    }
+
+    /**
+     * @return the attribute, or null if it cannot be read
+     */
+    public Object deserialize(byte[] bytes) {
+        try {
+            if (bytes.length > 0 && bytes[0] == SECURITY_CONTEXT) {
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+                    return new SecurityContextImpl(readAuthentication(in));
+                }
+            }
+            return javaDeserializer.convert(bytes);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Dropping session attribute that cannot be read ({} bytes): {}", bytes.length, e.toString());
+            return null;
+        }
+    }
+
+    private static boolean isCompact(Authentication authentication) {
+        if (authentication == null) {
+            return true;
+        }
+        return authentication.getClass() == OAuth2AuthenticationToken.class
+            && authentication.getPrincipal() instanceof CustomOAuth2User
+            && isRoleAuthorities(authentication.getAuthorities())
+            && isWebDetails(authentication.getDetails());
+    }
+
+    // Authorities that the role bitmask reproduces exactly
+    private static boolean isRoleAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        return RoleAuthorities.forMask(RoleAuthorities.maskOf(authorities)).size() == authorities.size();
+    }
+
+    private static boolean isWebDetails(Object details) {
+        return details == null || details.getClass() == WebAuthenticationDetails.class;
+    }
+
+    // Security context
+
+    private static void writeAuthentication(DataOutputStream out, Authentication authentication) throws IOException {
+        if (authentication == null) {
+            out.writeByte(NO_AUTHENTICATION);
+            return;
+        }
+        OAuth2AuthenticationToken token = (OAuth2AuthenticationToken) authentication;
+        CustomOAuth2User.Summary summary = ((CustomOAuth2User) token.getPrincipal()).getSummary();
+        out.writeByte(OAUTH2_LOGIN);
+        writeString(out, token.getAuthorizedClientRegistrationId());
+        writeVarInt(out, RoleAuthorities.maskOf(token.getAuthorities()));
+        writeDetails(out, (WebAuthenticationDetails) token.getDetails());
+
+        writeUuid(out, summary.loginId());
+        writeUuid(out, summary.userId());
+        writeString(out, summary.username());
+        writeVarInt(out, summary.roleMask());
+        writeString(out, summary.email());
+        writeString(out, summary.firstName());
+        writeString(out, summary.lastName());
+    }
+
+    private Authentication readAuthentication(DataInputStream in) throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind == NO_AUTHENTICATION) {
+            return null;
+        }
+        if (kind != OAUTH2_LOGIN) {
+            throw new IOException("Unknown authentication kind " + kind);
+        }
+        String registrationId = readString(in);
+        int roleMask = readVarInt(in);
+        WebAuthenticationDetails details = readDetails(in);
+
+        CustomOAuth2User.Summary summary = new CustomOAuth2User.Summary(readUuid(in), readUuid(in),
+            readString(in), readVarInt(in), readString(in), readString(in), readString(in));
+        CustomOAuth2User principal = new CustomOAuth2User(summary, loginCache);
+
+        OAuth2AuthenticationToken token =
+            new OAuth2AuthenticationToken(principal, RoleAuthorities.forMask(roleMask), registrationId);
+        token.setDetails(details);
+        return token;
+    }
+
+    private static void writeDetails(DataOutputStream out, WebAuthenticationDetails details) throws IOException {
+        out.writeBoolean(details != null);
+        if (details != null) {
+            writeString(out, details.getRemoteAddress());
+            writeString(out, details.getSessionId());
+        }
+    }
+
+    private static WebAuthenticationDetails readDetails(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new WebAuthenticationDetails(readString(in), readString(in)) : null;
+    }
+
+    // Primitives: lengths and masks as unsigned varints, strings as UTF-8
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length + 1);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.security.session;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the number of sessions per user on interactive logins: when a login would
+ * exceed {@code app.session.max-per-user}, the least recently used sessions of that
+ * user are invalidated. The new login always succeeds; {@code 0} turns the limit off.
+ * <p>
+ * Unlike Spring Security's concurrent session control this needs no per-request check,
+ * a replaced session simply no longer exists in the shared store.
+ */
+@Component
+public class SessionLimitStrategy implements SessionAuthenticationStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionLimitStrategy.class);
+
+    @Autowired
+    private UserSessionRegistry sessionRegistry;
+
+    @Value("${app.session.max-per-user:0}")
+    private int maxSessionsPerUser;
+
+    @Override
+    public void onAuthentication(Authentication authentication, HttpServletRequest request,
+                                 HttpServletResponse response) {
+        if (maxSessionsPerUser <= 0) {
+            return;
+        }
+        HttpSession current = request.getSession(false);
+        List<String> sessionIds = sessionRegistry.sessionIds(authentication.getName());
+        if (current != null) {
+            sessionIds.remove(current.getId());
+        }
+        // The new login is one of the allowed sessions
+        if (sessionIds.size() >= maxSessionsPerUser) {
+            List<String> replaced = sessionIds.subList(maxSessionsPerUser - 1, sessionIds.size());
+            int invalidated = sessionRegistry.invalidateSessions(replaced);
+            logger.debug("Login of {} replaced {} older sessions", authentication.getName(), invalidated);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.security.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+/**
+ * Session repository decorator that keeps requests which change nothing in the session
+ * from writing it back.
+ * <p>
+ * Spring Session moves the last-access time on every request, so every page view and
+ * Vaadin round trip would update the session row. Here a new last-access time is only
+ * applied once it is at least {@code interval} past the stored one; attribute changes,
+ * a new session id or a new timeout are saved as before. A session therefore expires
+ * up to {@code interval} before its nominal timeout.
+ */
+public class TouchThrottlingSessionRepository
+    implements FindByIndexNameSessionRepository<TouchThrottlingSessionRepository.ThrottledSession> {
+
+    private final FindByIndexNameSessionRepository<Session> delegate;
+    private final Duration interval;
+
+    @SuppressWarnings("unchecked")
+    public TouchThrottlingSessionRepository(FindByIndexNameSessionRepository<? extends Session> delegate,
+                                            Duration interval) {
+        // The delegate only ever gets back the sessions it created
+        this.delegate = (FindByIndexNameSessionRepository<Session>) delegate;
+        this.interval = interval;
+    }
+
+    @Override
+    public ThrottledSession createSession() {
+        return new ThrottledSession(delegate.createSession(), interval);
+    }
+
+    @Override
+    public void save(ThrottledSession session) {
+        delegate.save(session.delegate);
+    }
+
+    @Override
+    public ThrottledSession findById(String id) {
+        Session session = delegate.findById(id);
+        return session == null ? null : new ThrottledSession(session, interval);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, ThrottledSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, Session> sessions = delegate.findByIndexNameAndIndexValue(indexName, indexValue);
+        Map<String, ThrottledSession> throttled = new LinkedHashMap<>(sessions.size() * 4 / 3 + 1);
+        sessions.forEach((id, session) -> throttled.put(id, new ThrottledSession(session, interval)));
+        return throttled;
+    }
+
+    public static final class ThrottledSession implements Session {
+
+        private final Session delegate;
+        private final Duration interval;
+
+        ThrottledSession(Session delegate, Duration interval) {
+            this.delegate = delegate;
+            this.interval = interval;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            if (Duration.between(delegate.getLastAccessedTime(), lastAccessedTime).compareTo(interval) >= 0) {
+                delegate.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration maxInactiveInterval) {
+            delegate.setMaxInactiveInterval(maxInactiveInterval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.security.session;
+
+import com.example.security.user.User;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Force-logout endpoints (ADMIN only, see the /api chain in VaadinSecurityConfig).
+ * Every call is answered with the number of sessions removed.
+ */
+@RestController
+public class UserSessionController {
+
+    @Autowired
+    private UserSessionRegistry sessionRegistry;
+
+    @GetMapping("/api/admin/users/{username}/sessions")
+    public Map<String, Object> sessions(@PathVariable String username) {
+        return Map.of("sessions", sessionRegistry.sessionIds(username).size());
+    }
+
+    @DeleteMapping("/api/admin/users/{username}/sessions")
+    public Map<String, Object> invalidateUser(@PathVariable String username) {
+        return Map.of("invalidated", sessionRegistry.invalidateUser(username));
+    }
+
+    // Body: JSON array of usernames
+    @PostMapping("/api/admin/sessions/invalidate")
+    public Map<String, Object> invalidateUsers(@RequestBody List<String> usernames) {
+        return Map.of("invalidated", sessionRegistry.invalidateUsers(usernames));
+    }
+
+    @DeleteMapping("/api/admin/roles/{role}/sessions")
+    public Map<String, Object> invalidateRole(@PathVariable User.Role role) {
+        return Map.of("invalidated", sessionRegistry.invalidateRole(role));
+    }
+}
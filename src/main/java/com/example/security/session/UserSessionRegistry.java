@@ -0,0 +1,132 @@
+package com.example.security.session;
+
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import com.example.security.user.UserAuthorizationChangedEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Active sessions by user, on top of the shared session table.
+ * <p>
+ * Spring Session stores the username of every authenticated session in the indexed
+ * {@code principal_name} column, so the table already is the registry of all nodes:
+ * the sessions of a user are one index lookup, and invalidating them is a single
+ * DELETE (attributes go with the session rows). A deleted session is gone for every
+ * node on its next request, which then starts over at the login.
+ * <p>
+ * Sessions of users that are disabled, or no longer exist, are invalidated once the
+ * change has been committed.
+ */
+@Component
+public class UserSessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSessionRegistry.class);
+
+    // Bind variables per IN list
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final String selectSessions;
+    private final String deleteSessions;
+    private final String deleteUserSessions;
+    private final String deleteUsersSessions;
+    private final String deleteRoleSessions;
+
+    public UserSessionRegistry(
+        JdbcTemplate jdbcTemplate,
+        @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tableName
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.selectSessions = "SELECT session_id FROM " + tableName
+            + " WHERE principal_name = ? AND expiry_time > ? ORDER BY last_access_time DESC";
+        this.deleteSessions = "DELETE FROM " + tableName + " WHERE session_id IN (:ids)";
+        this.deleteUserSessions = "DELETE FROM " + tableName + " WHERE principal_name = ?";
+        this.deleteUsersSessions = "DELETE FROM " + tableName + " WHERE principal_name IN (:usernames)";
+        // role_mask holds one bit per role; MOD/division is the bit test that H2 and PostgreSQL share
+        this.deleteRoleSessions = "DELETE FROM " + tableName
+            + " WHERE principal_name IN (SELECT username FROM users WHERE MOD(role_mask / ?, 2) = 1)";
+    }
+
+    /**
+     * @return the ids of the user's unexpired sessions, most recently used first
+     */
+    public List<String> sessionIds(String username) {
+        return jdbcTemplate.queryForList(selectSessions, String.class, username, System.currentTimeMillis());
+    }
+
+    /**
+     * @return the number of sessions removed
+     */
+    public int invalidateUser(String username) {
+        int invalidated = jdbcTemplate.update(deleteUserSessions, username);
+        logger.info("Invalidated {} sessions of {}", invalidated, username);
+        return invalidated;
+    }
+
+    /**
+     * Removes all sessions of the given users, one statement per chunk of usernames.
+     *
+     * @return the number of sessions removed
+     */
+    public int invalidateUsers(Collection<String> usernames) {
+        int invalidated = 0;
+        List<String> chunk = new ArrayList<>(Math.min(usernames.size(), CHUNK_SIZE));
+        for (String username : usernames) {
+            chunk.add(username);
+            if (chunk.size() == CHUNK_SIZE) {
+                invalidated += namedJdbcTemplate.update(deleteUsersSessions, Map.of("usernames", chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            invalidated += namedJdbcTemplate.update(deleteUsersSessions, Map.of("usernames", chunk));
+        }
+        logger.info("Invalidated {} sessions of {} users", invalidated, usernames.size());
+        return invalidated;
+    }
+
+    /**
+     * Removes all sessions of users that currently have the role.
+     *
+     * @return the number of sessions removed
+     */
+    public int invalidateRole(User.Role role) {
+        int invalidated = jdbcTemplate.update(deleteRoleSessions, RoleAuthorities.bit(role));
+        logger.info("Invalidated {} sessions of users with role {}", invalidated, role);
+        return invalidated;
+    }
+
+    public int invalidateSessions(Collection<String> sessionIds) {
+        return sessionIds.isEmpty() ? 0 : namedJdbcTemplate.update(deleteSessions, Map.of("ids", sessionIds));
+    }
+
+    // Runs after the commit, so the deletes need a transaction of their own
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserAuthorizationChanged(UserAuthorizationChangedEvent event) {
+        // Sessions keep the authorities of their login, so a lost role needs a new login
+        if (event.rolesRevoked()) {
+            invalidateUser(event.username());
+            return;
+        }
+        List<Boolean> enabled = jdbcTemplate.queryForList(
+            "SELECT enabled FROM users WHERE username = ?", Boolean.class, event.username());
+        if (enabled.isEmpty() || !enabled.get(0)) {
+            invalidateUser(event.username());
+        }
+    }
+}
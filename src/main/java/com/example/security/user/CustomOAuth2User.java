@@ -2,32 +2,45 @@ package com.example.security.user;
 
 import java.util.Collection;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.UUID;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.core.oidc.OidcIdToken;
 import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
 public class CustomOAuth2User implements OidcUser {
-    
-    private final OAuth2User oauth2User;
-    private final User user;
+
+    private final Summary summary;
     private final Collection<GrantedAuthority> authorities;
 
+    // Claims, tokens and the User entity; resolved on first use for a principal read from the session
+    private final OAuth2LoginCache loginCache;
+    private volatile OAuth2LoginCache.Login login;
+
     public CustomOAuth2User(OAuth2User oauth2User, User user) {
-        this.oauth2User = oauth2User;
-        this.user = user;
-        
-        // Convert user roles to Spring Security authorities
-        this.authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.name()))
-                .collect(Collectors.toSet());
+        this.summary = new Summary(UUID.randomUUID(), user.getId(), user.getUsername(),
+            RoleAuthorities.toMask(user.getRoles()), user.getEmail(), user.getFirstName(), user.getLastName());
+        this.loginCache = null;
+        this.login = new OAuth2LoginCache.Login(oauth2User, user);
+
+        // Shared, precomputed authorities for the user's role combination
+        this.authorities = RoleAuthorities.forMask(summary.roleMask());
+    }
+
+    /**
+     * Principal restored from its {@link Summary}; the rest of the login is looked up in
+     * the cache only when something asks for it.
+     */
+    public CustomOAuth2User(Summary summary, OAuth2LoginCache loginCache) {
+        this.summary = summary;
+        this.loginCache = loginCache;
+        this.authorities = RoleAuthorities.forMask(summary.roleMask());
     }
 
     @Override
     public Map<String, Object> getClaims() {
+        OAuth2User oauth2User = login().oauth2User();
         if (oauth2User instanceof OidcUser oidcUser) {
             return oidcUser.getClaims();
         }
@@ -36,7 +49,7 @@ public class CustomOAuth2User implements OidcUser {
 
     @Override
     public OidcUserInfo getUserInfo() {
-        if (oauth2User instanceof OidcUser oidcUser) {
+        if (login().oauth2User() instanceof OidcUser oidcUser) {
             return oidcUser.getUserInfo();
         }
         return null;
@@ -44,7 +57,7 @@ public class CustomOAuth2User implements OidcUser {
 
     @Override
     public OidcIdToken getIdToken() {
-        if (oauth2User instanceof OidcUser oidcUser) {
+        if (login().oauth2User() instanceof OidcUser oidcUser) {
             return oidcUser.getIdToken();
         }
         return null;
@@ -57,24 +70,46 @@ public class CustomOAuth2User implements OidcUser {
 
     @Override
     public Map<String, Object> getAttributes() {
-        return oauth2User.getAttributes();
+        return login().oauth2User().getAttributes();
     }
 
     @Override
     public String getName() {
-        return user.getUsername();
+        return summary.username();
     }
 
     // Getter für den lokalen User
     public User getUser() {
-        return user;
+        return login().user();
     }
 
     public String getEmail() {
-        return user.getEmail();
+        return summary.email();
     }
 
     public String getFullName() {
-        return user.getFirstName() + " " + user.getLastName();
+        return summary.firstName() + " " + summary.lastName();
+    }
+
+    // Was ins Session-Attribut geschrieben wird
+    public Summary getSummary() {
+        return summary;
+    }
+
+    OAuth2LoginCache.Login login() {
+        OAuth2LoginCache.Login current = login;
+        if (current == null) {
+            current = loginCache.get(summary);
+            login = current;
+        }
+        return current;
+    }
+
+    /**
+     * The part of a login that is kept with the session: identity, roles and the values
+     * the dashboard shows. {@code loginId} names this login in the {@link OAuth2LoginCache}.
+     */
+    public record Summary(UUID loginId, UUID userId, String username, int roleMask,
+                          String email, String firstName, String lastName) {
     }
-}
\ No newline at end of file
+}
@@ -1,39 +1,106 @@
 package com.example.security.user;
 
+import com.example.security.metrics.AuthenticationMetrics;
+import com.example.security.metrics.AuthenticationMetrics.Method;
+import com.example.security.metrics.AuthenticationMetrics.Outcome;
+import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestOperations;
 
 @Service
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
+    // OAuth2 error code for a local account that is disabled
+    static final String ACCOUNT_DISABLED = "account_disabled";
+
+    // OAuth2 error code for a login that matches local accounts only ambiguously
+    static final String ACCOUNT_CONFLICT = "account_conflict";
+
     @Autowired
     private UserRepository userRepository;
 
-    private final OidcUserService oidcUserService = new OidcUserService();
+    @Autowired
+    private LoginActivityRecorder loginActivityRecorder;
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    @Autowired
+    private OAuth2LoginCache oauth2LoginCache;
+
+    // Shared instance using the pooled client from OAuth2HttpClientConfig
+    @Autowired
+    private OidcUserService oidcUserService;
+
+    @Autowired
+    @Qualifier("oauth2RestOperations")
+    private RestOperations oauth2RestOperations;
+
+    @PostConstruct
+    void useSharedHttpClient() {
+        setRestOperations(oauth2RestOperations);
+    }
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
+        long start = System.nanoTime();
         OAuth2User oauth2User;
         
         // Check if this is an OIDC request
-        if (userRequest instanceof OidcUserRequest oidcUserRequest) {
-            oauth2User = oidcUserService.loadUser(oidcUserRequest);
-        } else {
-            oauth2User = super.loadUser(userRequest);
+        try {
+            if (userRequest instanceof OidcUserRequest oidcUserRequest) {
+                oauth2User = oidcUserService.loadUser(oidcUserRequest);
+            } else {
+                oauth2User = super.loadUser(userRequest);
+            }
+        } catch (RuntimeException e) {
+            // Rejected tokens as well as user-info timeouts and other client errors
+            authenticationMetrics.recordAttempt(Method.OIDC, Outcome.OIDC_FAILURE, start);
+            throw e;
+        } finally {
+            authenticationMetrics.recordUserInfoFetch(start);
         }
         
-        return processOAuth2User(userRequest, oauth2User);
+        OAuth2User user;
+        try {
+            user = processOAuth2User(userRequest, oauth2User);
+        } catch (RuntimeException e) {
+            // Database errors count as failures too, only a disabled account has its own outcome
+            authenticationMetrics.recordAttempt(Method.OIDC,
+                isAccountDisabled(e) ? Outcome.DISABLED : Outcome.OIDC_FAILURE, start);
+            throw e;
+        }
+        authenticationMetrics.recordAttempt(Method.OIDC, Outcome.SUCCESS, start);
+        return user;
+    }
+
+    private static boolean isAccountDisabled(RuntimeException e) {
+        return e instanceof OAuth2AuthenticationException authenticationException
+            && ACCOUNT_DISABLED.equals(authenticationException.getError().getErrorCode());
     }
 
-    private OAuth2User processOAuth2User(OAuth2UserRequest userRequest, OAuth2User oauth2User) {
+    // Entry point for OIDC logins; CustomOAuth2User implements OidcUser for OIDC requests
+    public OidcUser loadOidcUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
+        return (OidcUser) loadUser(userRequest);
+    }
+
+    // package-private for the JMH benchmarks
+    OAuth2User processOAuth2User(OAuth2UserRequest userRequest, OAuth2User oauth2User) {
         // Extract user information
         String email = oauth2User.getAttribute("email");
         String name = oauth2User.getAttribute("name");
@@ -45,30 +112,92 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         String username = preferredUsername != null ? preferredUsername : 
                          (name != null ? name : email);
         
-        // Create or update user in database
-        User user = userRepository.findByEmail(email)
-            .orElseGet(() -> userRepository.findByUsername(username)
-                .orElseGet(() -> createNewUser(username, email, givenName, familyName)));
-        
-        // Update login info
-        user.setLastLogin(LocalDateTime.now());
+        LocalDateTime loginTime = LocalDateTime.now();
         String authMethod = "OAUTH2_" + userRequest.getClientRegistration().getRegistrationId().toUpperCase();
+
+        // Create or update user in database: one lookup, an insert only on the first login
+        long lookupStart = System.nanoTime();
+        User user = findExistingUser(username, email);
+        if (user == null) {
+            try {
+                user = createNewUser(username, email, givenName, familyName, authMethod, loginTime);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent first login of the same user won the insert; log in against its row
+                user = findExistingUser(username, email);
+                if (user == null) {
+                    throw e;
+                }
+                user = updateExistingUser(user, authMethod, loginTime);
+            }
+        } else {
+            user = updateExistingUser(user, authMethod, loginTime);
+        }
+        authenticationMetrics.recordUserLookup(lookupStart);
+        
+        // The session keeps only the summary; claims and tokens stay on this node
+        CustomOAuth2User principal = new CustomOAuth2User(oauth2User, user);
+        oauth2LoginCache.put(principal);
+        return principal;
+    }
+
+    private User updateExistingUser(User user, String authMethod, LocalDateTime loginTime) {
+        // Disabled accounts are rejected before anything about the login is recorded
+        if (!user.isEnabled()) {
+            throw new OAuth2AuthenticationException(new OAuth2Error(ACCOUNT_DISABLED),
+                "User " + user.getUsername() + " is disabled");
+        }
+
+        // Update login info (written behind, off the request thread)
+        user.setLastLogin(loginTime);
+        loginActivityRecorder.recordLogin(user.getUsername(), loginTime);
+
+        // Auth method only changes on the first OAuth2 login, so save only then
         if (user.getAuthMethod() == null || !user.getAuthMethod().startsWith("OAUTH2")) {
             user.setAuthMethod(authMethod);
+            user = userRepository.save(user);
         }
-        userRepository.save(user);
-        
-        return new CustomOAuth2User(oauth2User, user);
+        return user;
+    }
+
+    /**
+     * Exact username match first, then a single exact email match. The lookup itself is
+     * case-insensitive; a row that differs only in case (IdP account {@code Admin} against
+     * local {@code admin}) or several rows with the email are a conflict, never a pick.
+     */
+    private User findExistingUser(String username, String email) {
+        List<User> candidates = userRepository.findByUsernameOrEmail(username, email);
+        List<User> emailMatches = new ArrayList<>(1);
+        for (User candidate : candidates) {
+            if (candidate.getUsername().equals(username)) {
+                return candidate;
+            }
+            if (email != null && email.equals(candidate.getEmail())) {
+                emailMatches.add(candidate);
+            }
+        }
+        if (emailMatches.size() == 1) {
+            return emailMatches.get(0);
+        }
+        if (!candidates.isEmpty()) {
+            throw new OAuth2AuthenticationException(new OAuth2Error(ACCOUNT_CONFLICT),
+                "Login " + username + " matches local accounts only by case or by a shared email");
+        }
+        return null;
     }
     
-    private User createNewUser(String username, String email, String firstName, String lastName) {
+    private User createNewUser(String username, String email, String firstName, String lastName,
+                               String authMethod, LocalDateTime loginTime) {
         User newUser = new User();
         newUser.setUsername(username);
         newUser.setEmail(email);
         newUser.setFirstName(firstName != null ? firstName : "Unknown");
         newUser.setLastName(lastName != null ? lastName : "User");
         newUser.setRoles(Set.of(User.Role.USER)); // Default Role
-        newUser.setAuthMethod("OAUTH2");
-        return userRepository.save(newUser);
+        newUser.setAuthMethod(authMethod);
+        newUser.setLastLogin(loginTime);
+        // Flushed so a lost race surfaces here as DataIntegrityViolationException. Only the
+        // username is unique: two first logins with different usernames and the same email
+        // both insert, and later logins by that email alone are then rejected as a conflict
+        return userRepository.saveAndFlush(newUser);
     }
-}
\ No newline at end of file
+}
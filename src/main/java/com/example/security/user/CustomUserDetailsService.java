@@ -2,18 +2,16 @@
 // UserDetailsService für Header-Authentifizierung
 package com.example.security.user;
 
+import com.example.security.metrics.AuthenticationMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
 @Service
 @Component
@@ -22,34 +20,68 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository; // Deine User Repository
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private AuthenticationMetrics authenticationMetrics;
+
+    // Nur lesen: last_login schreibt der Aufrufer erst nach erfolgreicher Prüfung (enabled)
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Lade User aus deiner Datenbank oder externem Service
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        // Nur bei Cache-Miss wird die Datenbank abgefragt
+        return principalCache.get(username, this::loadFromRepository);
+    }
+
+    /**
+     * Wie {@link #loadUserByUsername(String)}, aber nur aus dem Principal-Cache, ohne
+     * Datenbankabfrage (für gedrosselte Clients). Liefert null, wenn der Nutzer nicht im Cache ist.
+     */
+    public UserDetails loadCachedUserByUsername(String username) {
+        return principalCache.getUserFromCache(username);
+    }
+
+    private UserDetails loadFromRepository(String username) {
+        // Lade nur die für den Principal nötigen Spalten, keine User-Entity
+        long start = System.nanoTime();
+        PrincipalView user;
+        try {
+            user = userRepository.findPrincipalByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        } finally {
+            authenticationMetrics.recordUserLookup(start);
+        }
         
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        if (user.getAuthMethod() == null) {
-            user.setAuthMethod("HEADER");
+        // Nur beim ersten Header-Login wird die Auth-Methode gespeichert
+        if (user.authMethod() == null) {
+            userRepository.initAuthMethod(username, "HEADER");
         }
-        userRepository.save(user);
         
+        return toUserDetails(user);
+    }
+
+    /**
+     * Lädt die zuletzt aktiven Nutzer in den Principal-Cache (Warm-up beim Start).
+     * Anders als ein Login ändert das weder last_login noch die Auth-Methode.
+     */
+    public int preloadRecentUsers(int limit) {
+        List<PrincipalView> recent = userRepository.findRecentPrincipals(PageRequest.of(0, limit));
+        for (PrincipalView user : recent) {
+            principalCache.putUserInCache(toUserDetails(user));
+        }
+        return recent.size();
+    }
+
+    private UserDetails toUserDetails(PrincipalView user) {
         return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getUsername())
+            .username(user.username())
             .password("") // Kein Passwort nötig bei Header-Auth
-            .authorities(mapToAuthorities(user.getRoles()))
+            .authorities(RoleAuthorities.forMask(user.roleMask()))
+            .disabled(!user.enabled())
             
             // TODO .accountNonExpired(true)
             // TODO .accountNonLocked(true)
             // TODO .credentialsNonExpired(true)
-            // TODO .enabled(user.isEnabled())
             .build();
     }
-    
-    private Collection<? extends GrantedAuthority> mapToAuthorities(java.util.Set<User.Role> roles) {
-        return roles.stream()
-            .map(role -> new SimpleGrantedAuthority(role.getAuthority()))
-            .collect(Collectors.toList());
-    }
 }
\ No newline at end of file
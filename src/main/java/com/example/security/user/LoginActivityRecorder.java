@@ -0,0 +1,150 @@
+package com.example.security.user;
+
+import com.example.security.BackgroundThreads;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind recorder for {@link User#getLastLogin()}.
+ * <p>
+ * Logins are buffered per username and coalesced to the latest timestamp, then
+ * written by a background thread as JDBC batches, one transaction per flush.
+ * Pending updates are flushed on shutdown.
+ */
+@Component
+public class LoginActivityRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginActivityRecorder.class);
+
+    private static final String UPDATE_LAST_LOGIN =
+        "UPDATE users SET last_login = ? WHERE username = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LoginActivityRecorder(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        @Value("${app.security.login-activity.write-behind:true}") boolean writeBehind,
+        @Value("${app.security.login-activity.flush-interval:5s}") Duration flushInterval,
+        @Value("${app.security.login-activity.batch-size:500}") int batchSize,
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehind = writeBehind;
+        this.batchSize = batchSize;
+
+        if (writeBehind) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(
+                BackgroundThreads.factory("login-activity-writer", virtualThreads));
+            long intervalMillis = flushInterval.toMillis();
+            this.executor.scheduleWithFixedDelay(this::flushQuietly,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Records a login for the given user. Returns immediately in write-behind mode.
+     */
+    public void recordLogin(String username, LocalDateTime loginTime) {
+        if (!writeBehind) {
+            jdbcTemplate.update(UPDATE_LAST_LOGIN, Timestamp.valueOf(loginTime), username);
+            return;
+        }
+        pending.merge(username, loginTime,
+            (previous, current) -> current.isAfter(previous) ? current : previous);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all buffered logins. Entries recorded concurrently with the flush
+     * are kept for the next run.
+     */
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        int written = 0;
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(new Object[] { Timestamp.valueOf(entry.getValue()), entry.getKey() });
+            }
+            if (batch.size() >= batchSize) {
+                written += writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += writeBatch(batch);
+        }
+        return written;
+    }
+
+    private int writeBatch(List<Object[]> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch));
+            return batch.size();
+        } catch (RuntimeException e) {
+            // Re-queue so the next flush retries the batch
+            for (Object[] row : batch) {
+                recordLogin((String) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            int written = flush();
+            if (written > 0) {
+                logger.debug("Flushed {} last-login updates", written);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to flush last-login updates", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.security.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-local store for the parts of an OAuth2/OIDC login that are not kept in the session:
+ * claims, ID token, user-info and the {@link User} entity. The session only holds a
+ * {@link CustomOAuth2User.Summary}; a principal read back from the session looks its login
+ * up here by {@code loginId} the first time one of those parts is asked for.
+ * <p>
+ * Logins made on another node, or evicted since, are rebuilt once from the summary: the
+ * user is reloaded by id, the claims are reduced to the ones the summary carries
+ * ({@code preferred_username}, {@code email}, {@code given_name}, {@code family_name})
+ * and there is no ID token. Entries expire after {@code ttl} without access, which
+ * should be at least the session timeout. Exported as {@code cache.*{cache="oauth2-login"}}.
+ */
+@Component
+public class OAuth2LoginCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OAuth2LoginCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<UUID, Login> logins;
+
+    public OAuth2LoginCache(
+        @Value("${app.security.oauth2-login-cache.ttl:30m}") Duration ttl,
+        @Value("${app.security.oauth2-login-cache.max-size:10000}") long maxSize
+    ) {
+        this.logins = Caffeine.newBuilder()
+            .expireAfterAccess(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    public void put(CustomOAuth2User principal) {
+        logins.put(principal.getSummary().loginId(), principal.login());
+    }
+
+    public Login get(CustomOAuth2User.Summary summary) {
+        return logins.get(summary.loginId(), loginId -> rebuild(summary));
+    }
+
+    private Login rebuild(CustomOAuth2User.Summary summary) {
+        logger.debug("Rebuilding OAuth2 login of {} from the session", summary.username());
+        User user = summary.userId() == null ? null : userRepository.findById(summary.userId()).orElse(null);
+        if (user == null) {
+            user = detachedUser(summary);
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>(8);
+        attributes.put("preferred_username", summary.username());
+        putIfPresent(attributes, "email", summary.email());
+        putIfPresent(attributes, "given_name", summary.firstName());
+        putIfPresent(attributes, "family_name", summary.lastName());
+        return new Login(new DefaultOAuth2User(List.of(), attributes, "preferred_username"), user);
+    }
+
+    // Stand-in for a user that no longer exists; it is never saved
+    private static User detachedUser(CustomOAuth2User.Summary summary) {
+        return User.detached(summary.userId(), summary.username(), summary.email(), summary.firstName(),
+            summary.lastName(), RoleAuthorities.fromMask(summary.roleMask()));
+    }
+
+    private static void putIfPresent(Map<String, Object> attributes, String name, String value) {
+        if (value != null) {
+            attributes.put(name, value);
+        }
+    }
+
+    public long size() {
+        return logins.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, logins, "oauth2-login");
+    }
+
+    /**
+     * The OAuth2 user returned by the identity provider, and the local user it was mapped to.
+     */
+    public record Login(OAuth2User oauth2User, User user) {
+    }
+}
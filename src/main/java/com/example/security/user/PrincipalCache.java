@@ -0,0 +1,156 @@
+package com.example.security.user;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded read-through cache for the principals built by {@link CustomUserDetailsService}.
+ * Entries expire after a fixed TTL and are evicted by size; role or enabled changes
+ * on a {@link User} invalidate the entry once the change has been committed.
+ * <p>
+ * Usernames the loader reported as unknown are remembered for a short, separate TTL,
+ * so repeated requests for a user that does not exist fail without a database query.
+ * Creating the user (its roles are set, which raises {@link UserAuthorizationChangedEvent})
+ * or provisioning it drops the negative entry.
+ * Hit, miss and eviction counts are exported as {@code cache.*{cache="principal"}}
+ * and {@code cache.*{cache="principal-unknown"}}.
+ */
+@Component
+public class PrincipalCache implements UserCache, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final boolean enabled;
+    private final AsyncCache<String, UserDetails> cache;
+    private final Cache<String, Boolean> unknownUsers;
+
+    public PrincipalCache(
+        @Value("${app.security.principal-cache.enabled:true}") boolean enabled,
+        @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+        @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+        @Value("${app.security.principal-cache.negative-ttl:30s}") Duration negativeTtl
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .buildAsync();
+        // A zero TTL disables negative caching (Caffeine then keeps nothing)
+        this.unknownUsers = Caffeine.newBuilder()
+            .expireAfterWrite(negativeTtl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the cached principal or loads it once, even under concurrent misses
+     * for the same username. Exceptions from the loader are not cached.
+     * <p>
+     * Only an empty future is installed under the map lock; the loader runs outside
+     * of it and concurrent callers wait on the future, so a slow lookup never holds
+     * a monitor (and never pins a virtual thread's carrier).
+     * <p>
+     * A {@link UsernameNotFoundException} from the loader is remembered; until the
+     * negative entry expires, the username fails right away with a
+     * {@link CachedUnknownUserException}, without calling the loader.
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        if (unknownUsers.getIfPresent(username) != null) {
+            throw new CachedUnknownUserException(username);
+        }
+
+        CompletableFuture<UserDetails> loading = new CompletableFuture<>();
+        CompletableFuture<UserDetails> result = cache.get(username, (key, executor) -> loading);
+        if (result == loading) {
+            try {
+                loading.complete(loader.apply(username));
+            } catch (RuntimeException e) {
+                // Failed futures are dropped from the cache
+                if (e instanceof UsernameNotFoundException) {
+                    unknownUsers.put(username, Boolean.TRUE);
+                }
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return enabled ? cache.synchronous().getIfPresent(username) : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (enabled) {
+            cache.synchronous().put(user.getUsername(), user);
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.synchronous().invalidate(username);
+        unknownUsers.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+        unknownUsers.invalidateAll();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "principal");
+        CaffeineCacheMetrics.monitor(registry, unknownUsers, "principal-unknown");
+    }
+
+    /**
+     * Thrown for usernames remembered as unknown; no lookup was made.
+     */
+    public static final class CachedUnknownUserException extends UsernameNotFoundException {
+
+        CachedUnknownUserException(String username) {
+            super("User not found (cached): " + username);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthorizationChanged(UserAuthorizationChangedEvent event) {
+        logger.debug("Invalidating cached principal: {}", event.username());
+        removeUserFromCache(event.username());
+    }
+}
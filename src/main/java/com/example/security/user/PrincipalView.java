@@ -0,0 +1,16 @@
+package com.example.security.user;
+
+import java.util.Set;
+
+/**
+ * Read model for the authentication paths: just the columns needed to build a
+ * principal, without hydrating a managed {@link User} entity. Roles are carried
+ * as a {@link RoleAuthorities} bitmask.
+ */
+public record PrincipalView(String username, boolean enabled, String authMethod, int roleMask) {
+
+    // JPQL constructor expression; the roles arrive already converted from the role_mask column
+    public PrincipalView(String username, boolean enabled, String authMethod, Set<User.Role> roles) {
+        this(username, enabled, authMethod, RoleAuthorities.toMask(roles));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.security.user;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Canonical, precomputed authorities for every combination of {@link User.Role}.
+ * <p>
+ * A role combination is encoded as a bitmask of {@code 1 << role.ordinal()}; the
+ * table holds one immutable authority set per mask and one shared
+ * {@link GrantedAuthority} instance per role. New roles must therefore be
+ * appended to the enum, never inserted or reordered.
+ */
+public final class RoleAuthorities {
+
+    private static final User.Role[] ROLES = User.Role.values();
+    private static final GrantedAuthority[] AUTHORITIES = new GrantedAuthority[ROLES.length];
+    private static final Set<GrantedAuthority>[] TABLE;
+
+    static {
+        for (User.Role role : ROLES) {
+            AUTHORITIES[role.ordinal()] = new SimpleGrantedAuthority(role.getAuthority());
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<GrantedAuthority>[] table = new Set[1 << ROLES.length];
+        for (int mask = 0; mask < table.length; mask++) {
+            Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+            for (User.Role role : ROLES) {
+                if ((mask & bit(role)) != 0) {
+                    authorities.add(AUTHORITIES[role.ordinal()]);
+                }
+            }
+            table[mask] = Set.copyOf(authorities);
+        }
+        TABLE = table;
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static int bit(User.Role role) {
+        return 1 << role.ordinal();
+    }
+
+    public static int toMask(Collection<User.Role> roles) {
+        int mask = 0;
+        for (User.Role role : roles) {
+            mask |= bit(role);
+        }
+        return mask;
+    }
+
+    /**
+     * Bitmask of the roles contained in the given authorities, without allocating.
+     * Authorities that do not belong to a {@link User.Role} are ignored.
+     */
+    public static int maskOf(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            for (User.Role role : ROLES) {
+                GrantedAuthority canonical = AUTHORITIES[role.ordinal()];
+                if (authority == canonical || canonical.getAuthority().equals(authority.getAuthority())) {
+                    mask |= bit(role);
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static EnumSet<User.Role> fromMask(int mask) {
+        EnumSet<User.Role> roles = EnumSet.noneOf(User.Role.class);
+        for (User.Role role : ROLES) {
+            if ((mask & bit(role)) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    public static GrantedAuthority authority(User.Role role) {
+        return AUTHORITIES[role.ordinal()];
+    }
+
+    public static Set<GrantedAuthority> forMask(int mask) {
+        return TABLE[mask & (TABLE.length - 1)];
+    }
+
+    public static Set<GrantedAuthority> forRoles(Collection<User.Role> roles) {
+        return TABLE[toMask(roles)];
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.security.user;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a user's roles as a single {@link RoleAuthorities} bitmask column
+ * instead of a separate collection table.
+ */
+@Converter
+public class RoleSetConverter implements AttributeConverter<Set<User.Role>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<User.Role> roles) {
+        return roles == null ? 0 : RoleAuthorities.toMask(roles);
+    }
+
+    @Override
+    public Set<User.Role> convertToEntityAttribute(Integer mask) {
+        return mask == null ? EnumSet.noneOf(User.Role.class) : RoleAuthorities.fromMask(mask);
+    }
+}
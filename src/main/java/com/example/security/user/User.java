@@ -2,9 +2,16 @@ package com.example.security.user;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.AfterDomainEventPublication;
+import org.springframework.data.domain.DomainEvents;
 
 @Entity
 @Table(name = "users")
@@ -20,12 +27,21 @@ public class User {
     @Column()
     private String email;
 
+    // Lower-case lookup keys (indexed, see db/migration), derived from username and email
+    @Column(name = "username_lower")
+    private String usernameLower;
+
+    @Column(name = "email_lower")
+    private String emailLower;
+
     private String firstName;
     private String lastName;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @Enumerated(EnumType.STRING)
-    private Set<Role> roles = new HashSet<>();
+    // Bitmask column (see RoleAuthorities); the set is replaced, never mutated, so dirty checking sees changes
+    @Convert(converter = RoleSetConverter.class)
+    @Column(name = "role_mask", nullable = false)
+    @ColumnDefault("0")
+    private Set<Role> roles = EnumSet.noneOf(Role.class);
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -38,6 +54,10 @@ public class User {
 
     private boolean enabled = true;
 
+    // Roles before the first unpublished authorization change; null if there is none
+    @Transient
+    private transient Set<Role> rolesBeforeChange;
+
     // Constructors
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -49,6 +69,20 @@ public class User {
         this.email = email;
     }
 
+    /**
+     * A copy that is never saved, built from session data. Fields are set directly, so
+     * the copy carries no authorization change and publishes no event.
+     */
+    static User detached(UUID id, String username, String email, String firstName, String lastName,
+                         Set<Role> roles) {
+        User user = new User(username, email);
+        user.id = id;
+        user.firstName = firstName;
+        user.lastName = lastName;
+        user.roles = roles.isEmpty() ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(roles);
+        return user;
+    }
+
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -91,11 +125,12 @@ public class User {
     }
 
     public Set<Role> getRoles() {
-        return roles;
+        return Collections.unmodifiableSet(roles);
     }
 
     public void setRoles(Set<Role> roles) {
-        this.roles = roles;
+        authorizationChanged();
+        this.roles = roles.isEmpty() ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(roles);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -127,9 +162,23 @@ public class User {
     }
 
     public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            authorizationChanged();
+        }
         this.enabled = enabled;
     }
 
+    @PrePersist
+    @PreUpdate
+    void updateLookupKeys() {
+        this.usernameLower = lookupKey(username);
+        this.emailLower = lookupKey(email);
+    }
+
+    public static String lookupKey(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
     // Helper Methods
     public String getFullName() {
         if (firstName != null && lastName != null) {
@@ -139,17 +188,48 @@ public class User {
     }
 
     public void addRole(Role role) {
-        this.roles.add(role);
+        if (!this.roles.contains(role)) {
+            authorizationChanged();
+            EnumSet<Role> updated = EnumSet.copyOf(this.roles);
+            updated.add(role);
+            this.roles = updated;
+        }
     }
 
     public void removeRole(Role role) {
-        this.roles.remove(role);
+        if (this.roles.contains(role)) {
+            authorizationChanged();
+            EnumSet<Role> updated = EnumSet.copyOf(this.roles);
+            updated.remove(role);
+            this.roles = updated;
+        }
     }
 
     public boolean hasRole(Role role) {
         return this.roles.contains(role);
     }
 
+    // Domain Events (published by Spring Data on save); called before the change is applied
+    private void authorizationChanged() {
+        if (username != null && rolesBeforeChange == null) {
+            // The role set is never mutated in place, so keeping the reference is enough
+            rolesBeforeChange = roles;
+        }
+    }
+
+    @DomainEvents
+    Collection<Object> domainEvents() {
+        if (rolesBeforeChange == null) {
+            return List.of();
+        }
+        return List.of(new UserAuthorizationChangedEvent(username, !roles.containsAll(rolesBeforeChange)));
+    }
+
+    @AfterDomainEventPublication
+    void clearDomainEvents() {
+        rolesBeforeChange = null;
+    }
+
     @Override
     public String toString() {
         return "User{" +
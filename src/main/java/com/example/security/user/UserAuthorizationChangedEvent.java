@@ -0,0 +1,13 @@
+package com.example.security.user;
+
+/**
+ * Domain event raised when the roles or the enabled flag of a {@link User} change.
+ * Published by Spring Data on {@code UserRepository.save(...)}. {@code rolesRevoked}
+ * is set when the user no longer has a role held before the change.
+ */
+public record UserAuthorizationChangedEvent(String username, boolean rolesRevoked) {
+
+    public UserAuthorizationChangedEvent(String username) {
+        this(username, false);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.security.user;
+
+import com.example.security.user.UserProvisioningService.Format;
+import com.example.security.user.UserProvisioningService.Report;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bulk import endpoint (ADMIN only, see the /api chain in VaadinSecurityConfig).
+ * The request body is streamed into {@link UserProvisioningService}; the response is
+ * JSON lines: one progress record per chunk, then the final report.
+ */
+@RestController
+public class UserProvisioningController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private UserProvisioningService provisioningService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping(path = "/api/admin/users/import", consumes = { "text/csv", NDJSON })
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf("text/csv"))
+            ? Format.CSV : Format.JSON_LINES;
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding("UTF-8");
+        }
+
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        try {
+            Report report = provisioningService.provision(request.getReader(), format, progress -> {
+                try {
+                    writeLine(out, Map.of("progress", progress));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writeLine(out, Map.of("report", report));
+        } catch (IllegalArgumentException e) {
+            // Only a malformed CSV header aborts the import, before anything was written
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            writeLine(out, Map.of("error", e.getMessage()));
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.security.user;
+
+import com.example.security.session.UserSessionRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk provisioning of users from a CSV or JSON-lines stream.
+ * <p>
+ * The input is read line by line and written in chunks, one transaction and one
+ * JDBC batch per chunk, so memory stays bounded by the chunk size. Existing users
+ * (matched by username) are updated, new ones inserted. If a chunk fails, its rows
+ * are retried one by one to report the offending rows; parse errors never abort
+ * the import.
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    private static final String SELECT_EXISTING =
+        "SELECT username, role_mask FROM users WHERE username IN (:usernames)";
+    private static final String INSERT_USER =
+        "INSERT INTO users (id, username, username_lower, email, email_lower, first_name, last_name, "
+            + "role_mask, enabled, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // A null parameter is a column the input did not supply; the stored value stays
+    private static final String UPDATE_USER =
+        "UPDATE users SET email = COALESCE(?, email), email_lower = COALESCE(?, email_lower), "
+            + "first_name = COALESCE(?, first_name), last_name = COALESCE(?, last_name), "
+            + "role_mask = COALESCE(?, role_mask), enabled = COALESCE(?, enabled) WHERE username = ?";
+
+    public enum Format {
+        CSV, JSON_LINES
+    }
+
+    public record RowError(long line, String username, String message) {
+    }
+
+    public record Progress(long processed, long inserted, long updated, long failed) {
+    }
+
+    public record Report(long processed, long inserted, long updated, long failed,
+                         List<RowError> errors, boolean errorsTruncated) {
+    }
+
+    // Everything but the username is null when the input leaves it out or empty
+    private record Row(long line, String username, String email, String firstName, String lastName,
+                       Integer roleMask, Boolean enabled) {
+    }
+
+    // Existing users whose new role mask lacks a role they had are listed in rolesRevoked
+    private record Written(int inserted, int updated, List<String> rolesRevoked) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PrincipalCache principalCache;
+    private final UserSessionRegistry sessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public UserProvisioningService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        PrincipalCache principalCache,
+        UserSessionRegistry sessionRegistry,
+        ObjectMapper objectMapper,
+        @Value("${app.security.provisioning.chunk-size:1000}") int chunkSize,
+        @Value("${app.security.provisioning.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.principalCache = principalCache;
+        this.sessionRegistry = sessionRegistry;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports all users from the reader. CSV input needs a header line naming the
+     * columns ({@code username} is required; {@code email}, {@code firstName},
+     * {@code lastName}, {@code roles} and {@code enabled} are optional). Roles are
+     * separated by {@code |}, {@code ;} or blanks. Missing or empty values leave an
+     * existing user's column unchanged; new users default to role {@code USER}, enabled.
+     * A user listed twice in one chunk keeps the last row, the earlier ones are reported.
+     *
+     * @param progress called after every chunk
+     */
+    public Report provision(Reader input, Format format, Consumer<Progress> progress) throws IOException {
+        Import result = new Import();
+        Map<String, Row> chunk = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(input);
+        Map<String, Integer> columns = null;
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = parseHeader(line);
+                continue;
+            }
+
+            try {
+                Row row = format == Format.CSV ? parseCsv(lineNumber, line, columns) : parseJson(lineNumber, line);
+                // Later rows for the same user win within a chunk, as they would across chunks
+                Row superseded = chunk.remove(row.username());
+                if (superseded != null) {
+                    result.processed++;
+                    result.error(superseded.line(), superseded.username(),
+                        "Duplicate username, superseded by line " + row.line());
+                }
+                chunk.put(row.username(), row);
+            } catch (IllegalArgumentException | IOException e) {
+                result.processed++;
+                result.error(lineNumber, null, e.getMessage());
+            }
+
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk.values(), result);
+                chunk.clear();
+                progress.accept(result.progress());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk.values(), result);
+            progress.accept(result.progress());
+        }
+
+        logger.info("Provisioned {} users: {} inserted, {} updated, {} failed",
+            result.processed, result.inserted, result.updated, result.failed);
+        return new Report(result.processed, result.inserted, result.updated, result.failed,
+            List.copyOf(result.errors), result.failed > result.errors.size());
+    }
+
+    private void writeChunk(Collection<Row> rows, Import result) {
+        List<String> loggedOut = new ArrayList<>();
+        try {
+            Written written = transactionTemplate.execute(status -> write(rows));
+            result.processed += rows.size();
+            result.inserted += written.inserted();
+            result.updated += written.updated();
+            loggedOut.addAll(written.rolesRevoked());
+        } catch (DataAccessException e) {
+            logger.debug("Chunk failed, retrying {} rows one by one", rows.size(), e);
+            for (Row row : rows) {
+                result.processed++;
+                try {
+                    Written written = transactionTemplate.execute(status -> write(List.of(row)));
+                    result.inserted += written.inserted();
+                    result.updated += written.updated();
+                    loggedOut.addAll(written.rolesRevoked());
+                } catch (DataAccessException rowFailure) {
+                    result.error(row.line(), row.username(),
+                        NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+
+        // Roles or the enabled flag may have changed behind JPA's back
+        for (Row row : rows) {
+            principalCache.removeUserFromCache(row.username());
+            if (Boolean.FALSE.equals(row.enabled())) {
+                loggedOut.add(row.username());
+            }
+        }
+        // No domain events on this path, so disabled and downgraded users are logged out here
+        if (!loggedOut.isEmpty()) {
+            sessionRegistry.invalidateUsers(loggedOut);
+        }
+    }
+
+    private Written write(Collection<Row> rows) {
+        Map<String, Integer> existing = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_EXISTING, Map.of("usernames", rows.stream().map(Row::username).toList()),
+            rs -> {
+                existing.put(rs.getString(1), rs.getInt(2));
+            });
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<String> rolesRevoked = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Row row : rows) {
+            Integer previousMask = existing.get(row.username());
+            if (previousMask != null) {
+                if (row.roleMask() != null && (previousMask & ~row.roleMask()) != 0) {
+                    rolesRevoked.add(row.username());
+                }
+                updates.add(new Object[] { row.email(), User.lookupKey(row.email()), row.firstName(),
+                    row.lastName(), row.roleMask(), row.enabled(), row.username() });
+            } else {
+                inserts.add(new Object[] { UUID.randomUUID(), row.username(), User.lookupKey(row.username()),
+                    row.email(), User.lookupKey(row.email()), row.firstName(), row.lastName(),
+                    row.roleMask() != null ? row.roleMask() : RoleAuthorities.bit(User.Role.USER),
+                    row.enabled() == null || row.enabled(), now });
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER, inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_USER, updates);
+        }
+        return new Written(inserts.size(), updates.size(), rolesRevoked);
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("username")) {
+            throw new IllegalArgumentException("CSV header must contain a username column");
+        }
+        return columns;
+    }
+
+    private static Row parseCsv(long line, String text, Map<String, Integer> columns) {
+        List<String> values = splitCsv(text);
+        return toRow(line,
+            column(values, columns, "username"),
+            column(values, columns, "email"),
+            column(values, columns, "firstname"),
+            column(values, columns, "lastname"),
+            column(values, columns, "roles"),
+            column(values, columns, "enabled"));
+    }
+
+    private Row parseJson(long line, String text) throws IOException {
+        JsonNode node = objectMapper.readTree(text);
+        JsonNode roles = node.path("roles");
+        String roleList = roles.isArray()
+            ? String.join("|", objectMapper.convertValue(roles, String[].class))
+            : text(roles);
+        return toRow(line, text(node.path("username")), text(node.path("email")), text(node.path("firstName")),
+            text(node.path("lastName")), roleList, text(node.path("enabled")));
+    }
+
+    private static Row toRow(long line, String username, String email, String firstName, String lastName,
+                             String roles, String enabled) {
+        if (username == null) {
+            throw new IllegalArgumentException("Missing username");
+        }
+        return new Row(line, username, email, firstName, lastName, parseRoles(roles),
+            enabled == null ? null : Boolean.parseBoolean(enabled));
+    }
+
+    private static Integer parseRoles(String roles) {
+        if (roles == null) {
+            return null;
+        }
+        int mask = 0;
+        for (String name : roles.split("[|;\\s]+")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            String role = name.toUpperCase(Locale.ROOT);
+            try {
+                mask |= RoleAuthorities.bit(User.Role.valueOf(role.startsWith("ROLE_") ? role.substring(5) : role));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown role: " + name);
+            }
+        }
+        return mask == 0 ? null : mask;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(JsonNode node) {
+        return node.isMissingNode() || node.isNull() || node.asText().isBlank() ? null : node.asText();
+    }
+
+    // RFC 4180 fields within a single line: quoted fields may contain commas and "" escapes
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private final class Import {
+        long processed;
+        long inserted;
+        long updated;
+        long failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void error(long line, String username, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, username, message));
+            }
+        }
+
+        Progress progress() {
+            return new Progress(processed, inserted, updated, failed);
+        }
+    }
+}
@@ -1,22 +1,51 @@
 package com.example.security.user;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByUsername(String username);
 
-    Optional<User> findByEmail(String email);
+    // Case-insensitive lookups go through the indexed lower-case key columns. Those keys are not
+    // unique (usernames differing only in case, shared emails), so every match is returned
+    @Query("SELECT u FROM User u WHERE u.emailLower = LOWER(:email)")
+    List<User> findByEmail(@Param("email") String email);
 
-    @Query("SELECT u FROM User u WHERE u.username = :identifier OR u.email = :identifier")
-    Optional<User> findByUsernameOrEmail(@Param("identifier") String identifier);
+    @Query("SELECT u FROM User u WHERE u.usernameLower = LOWER(:identifier) "
+         + "UNION SELECT u FROM User u WHERE u.emailLower = LOWER(:identifier)")
+    List<User> findByUsernameOrEmail(@Param("identifier") String identifier);
+
+    // OIDC login lookup: one round trip, each branch of the UNION uses its own index
+    @Query("SELECT u FROM User u WHERE u.emailLower = LOWER(:email) "
+         + "UNION SELECT u FROM User u WHERE u.usernameLower = LOWER(:username)")
+    List<User> findByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
 
     boolean existsByUsername(String username);
 
+    // Principal read model for authentication: one row, scalar columns only, no entity in the persistence context
+    @Query("SELECT new com.example.security.user.PrincipalView(u.username, u.enabled, u.authMethod, u.roles) "
+         + "FROM User u WHERE u.username = :username")
+    Optional<PrincipalView> findPrincipalByUsername(@Param("username") String username);
+
+    // Most recently active users first, for the startup warm-up of the PrincipalCache
+    @Query("SELECT new com.example.security.user.PrincipalView(u.username, u.enabled, u.authMethod, u.roles) "
+         + "FROM User u WHERE u.lastLogin IS NOT NULL ORDER BY u.lastLogin DESC")
+    List<PrincipalView> findRecentPrincipals(Pageable pageable);
+
+    // Records the first auth method without loading the entity; returns 0 if one was already set
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.authMethod = :authMethod WHERE u.username = :username AND u.authMethod IS NULL")
+    int initAuthMethod(@Param("username") String username, @Param("authMethod") String authMethod);
+
 }
\ No newline at end of file
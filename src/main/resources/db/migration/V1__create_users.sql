@@ -0,0 +1,20 @@
+-- Users and their roles as previously generated by Hibernate (roles as an element collection)
+CREATE TABLE users (
+    id          UUID         NOT NULL,
+    username    VARCHAR(255) NOT NULL,
+    email       VARCHAR(255),
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    last_login  TIMESTAMP(6),
+    auth_method VARCHAR(255),
+    enabled     BOOLEAN      NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE user_roles (
+    user_id UUID         NOT NULL,
+    roles   VARCHAR(255),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,9 @@
+-- Lower-case lookup keys for username and email, maintained by the User entity.
+-- Plain columns instead of expression indexes, which H2 does not support.
+ALTER TABLE users ADD COLUMN username_lower VARCHAR(255);
+ALTER TABLE users ADD COLUMN email_lower VARCHAR(255);
+
+UPDATE users SET username_lower = LOWER(username), email_lower = LOWER(email);
+
+CREATE INDEX ix_users_username_lower ON users (username_lower);
+CREATE INDEX ix_users_email_lower ON users (email_lower);
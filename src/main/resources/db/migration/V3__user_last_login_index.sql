@@ -0,0 +1,2 @@
+-- Startup warm-up preloads the most recently active users
+CREATE INDEX ix_users_last_login ON users (last_login);
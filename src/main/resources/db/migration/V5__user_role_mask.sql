@@ -0,0 +1,10 @@
+-- Roles move from the user_roles collection table into one bit per role (1 << Role.ordinal:
+-- USER 1, ADMIN 2, MANAGER 4); unknown role names are dropped
+ALTER TABLE users ADD COLUMN role_mask INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE users SET role_mask = COALESCE((
+    SELECT SUM(CASE r.roles WHEN 'USER' THEN 1 WHEN 'ADMIN' THEN 2 WHEN 'MANAGER' THEN 4 ELSE 0 END)
+    FROM (SELECT DISTINCT user_id, roles FROM user_roles) r
+    WHERE r.user_id = users.id), 0);
+
+DROP TABLE user_roles;
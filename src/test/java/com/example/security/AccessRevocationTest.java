@@ -0,0 +1,114 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.security.session.UserSessionRegistry;
+import com.example.security.user.LoginActivityRecorder;
+import com.example.security.user.User;
+import com.example.security.user.UserRepository;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Disabling a user or taking away a role deletes the user's sessions. A disabled user must
+ * not be logged in again by the X_AUTH_USER header that the proxy still sends.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+	properties = { "app.security.header-auth.mode=session-sticky", "app.warmup.enabled=false" })
+@ActiveProfiles("test")
+@DisplayName("Access Revocation Tests")
+class AccessRevocationTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserSessionRegistry sessionRegistry;
+
+	@Autowired
+	private LoginActivityRecorder loginActivityRecorder;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.cookieHandler(new CookieManager())
+		.followRedirects(HttpClient.Redirect.NEVER)
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	@Test
+	@DisplayName("A disabled user loses the session and cannot authenticate by header again")
+	void testDisabledUserIsRejected() throws Exception {
+		User user = admin("disabled.admin");
+
+		assertEquals(200, send(user.getUsername()).statusCode());
+		assertEquals(1, sessionRegistry.sessionIds(user.getUsername()).size());
+
+		user.setEnabled(false);
+		userRepository.save(user);
+
+		assertTrue(sessionRegistry.sessionIds(user.getUsername()).isEmpty());
+		loginActivityRecorder.flush();
+		Timestamp lastLogin = lastLogin(user.getUsername());
+
+		assertNotEquals(200, send(user.getUsername()).statusCode());
+		assertTrue(sessionRegistry.sessionIds(user.getUsername()).isEmpty());
+		// A rejected request is no login
+		loginActivityRecorder.flush();
+		assertEquals(lastLogin, lastLogin(user.getUsername()));
+	}
+
+	@Test
+	@DisplayName("Losing a role ends the sessions, gaining one keeps them")
+	void testRoleDowngradeEndsSessions() throws Exception {
+		User user = admin("downgraded.admin");
+
+		assertEquals(200, send(user.getUsername()).statusCode());
+
+		user.addRole(User.Role.MANAGER);
+		user = userRepository.save(user);
+		assertEquals(1, sessionRegistry.sessionIds(user.getUsername()).size());
+
+		user.removeRole(User.Role.ADMIN);
+		userRepository.save(user);
+		assertTrue(sessionRegistry.sessionIds(user.getUsername()).isEmpty());
+	}
+
+	private Timestamp lastLogin(String username) {
+		return jdbcTemplate.queryForObject("SELECT last_login FROM users WHERE username = ?", Timestamp.class, username);
+	}
+
+	private User admin(String username) {
+		User user = new User(username, username + "@company.com");
+		user.addRole(User.Role.ADMIN);
+		return userRepository.save(user);
+	}
+
+	// ADMIN-only endpoint on the session-based Vaadin chain
+	private HttpResponse<Void> send(String username) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/securitytrace"))
+			.header("X_AUTH_USER", username)
+			.timeout(Duration.ofSeconds(30))
+			.GET()
+			.build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding());
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The /api/** chain authenticates every request from the header and keeps nothing
+ * between requests: no HttpSession, no session row, no session cookie.
+ */
+// Same properties as AccessRevocationTest, so both share one application context
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+	properties = { "app.security.header-auth.mode=session-sticky", "app.warmup.enabled=false" })
+@ActiveProfiles("test")
+@DisplayName("API Stateless Chain Tests")
+class ApiStatelessChainTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.followRedirects(HttpClient.Redirect.NEVER)
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	@Test
+	@DisplayName("A header-authenticated API request creates no session")
+	void testNoSession() throws Exception {
+		int sessionsBefore = sessionCount();
+
+		HttpResponse<Void> response = send("admin");
+
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().allValues("Set-Cookie").isEmpty(),
+			() -> "Unexpected cookies: " + response.headers().allValues("Set-Cookie"));
+		assertEquals(sessionsBefore, sessionCount());
+	}
+
+	@Test
+	@DisplayName("A USER is refused on /api/admin/**")
+	void testAdminApiRefusedForUser() throws Exception {
+		HttpResponse<Void> response = send("user");
+
+		assertEquals(403, response.statusCode());
+		assertTrue(response.headers().allValues("Set-Cookie").isEmpty());
+	}
+
+	private int sessionCount() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION", Integer.class);
+	}
+
+	private HttpResponse<Void> send(String username) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(
+				URI.create("http://localhost:" + port + "/api/admin/users/nobody/sessions"))
+			.header("X_AUTH_USER", username)
+			.timeout(Duration.ofSeconds(30))
+			.GET()
+			.build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding());
+	}
+}
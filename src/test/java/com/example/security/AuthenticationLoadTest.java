@@ -0,0 +1,256 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.security.user.User;
+import com.example.security.user.UserRepository;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Load harness for capacity planning. Replays concurrent X_AUTH_USER traffic and
+ * synthetic OIDC logins against the real security filter chains, using the
+ * in-process {@link StubOidcProvider} instead of Keycloak, and reports throughput,
+ * latency percentiles, created sessions and heap growth per scenario.
+ * <p>
+ * Not part of the default build; run with {@code mvn test -Dtest=AuthenticationLoadTest}
+ * and tune via {@code -Dload.requests}, {@code -Dload.logins}, {@code -Dload.concurrency}
+ * and {@code -Dload.users}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(AuthenticationLoadTest.LoadTestConfig.class)
+@DisplayName("Authentication Load Tests")
+public class AuthenticationLoadTest {
+
+	private static final int REQUESTS = Integer.getInteger("load.requests", 5000);
+	private static final int LOGINS = Integer.getInteger("load.logins", 200);
+	private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+	private static final int USERS = Integer.getInteger("load.users", 200);
+
+	private static final StubOidcProvider oidcProvider = new StubOidcProvider();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.followRedirects(HttpClient.Redirect.NEVER)
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	@DynamicPropertySource
+	static void configureProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.security.oauth2.client.provider.keycloak.issuer-uri", oidcProvider::getIssuer);
+	}
+
+	@AfterAll
+	static void stopProvider() {
+		oidcProvider.stop();
+	}
+
+	@BeforeEach
+	void createUsers() {
+		for (int i = 0; i < USERS; i++) {
+			String username = "load.user" + i;
+			if (userRepository.findByUsername(username).isEmpty()) {
+				User user = new User(username, username + "@company.com");
+				user.addRole(User.Role.USER);
+				userRepository.save(user);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Header authentication on the Vaadin chain")
+	void testHeaderTraffic() throws Exception {
+		Report report = run("header -> /actuator/health", REQUESTS, i ->
+			send(get("/actuator/health").header("X_AUTH_USER", "load.user" + (i % USERS))).statusCode() == 200);
+
+		assertEquals(0, report.errors());
+		assertEquals(0, report.sessionsCreated(), "header traffic without cookies must not create sessions");
+	}
+
+	@Test
+	@DisplayName("Header authentication on the stateless /api/** chain")
+	void testApiHeaderTraffic() throws Exception {
+		Report report = run("header -> /api/load-probe", REQUESTS, i ->
+			send(get("/api/load-probe").header("X_AUTH_USER", "load.user" + (i % USERS))).statusCode() == 200);
+
+		assertEquals(0, report.errors());
+		assertEquals(0, report.sessionsCreated(), "the /api/** chain must stay stateless");
+	}
+
+	@Test
+	@DisplayName("Synthetic OIDC logins against the stub provider")
+	void testOidcLogins() throws Exception {
+		Report report = run("oidc login", LOGINS, i -> login("oidc.user" + (i % USERS)));
+
+		assertEquals(0, report.errors());
+		assertEquals(LOGINS, report.sessionsCreated(), "each login should hold exactly one session");
+	}
+
+	private boolean login(String username) throws Exception {
+		HttpResponse<Void> start = send(get("/oauth2/authorization/keycloak"));
+		String sessionCookie = sessionCookie(start);
+		String authorizeUrl = start.headers().firstValue("Location").orElseThrow() + "&login_hint=" + username;
+
+		HttpResponse<Void> authorize = send(HttpRequest.newBuilder(URI.create(authorizeUrl)).GET());
+		String callback = authorize.headers().firstValue("Location").orElseThrow();
+
+		HttpResponse<Void> done = send(HttpRequest.newBuilder(URI.create(callback)).header("Cookie", sessionCookie).GET());
+		return done.statusCode() == 302
+			&& done.headers().firstValue("Location").orElse("").endsWith("/dashboard");
+	}
+
+	private HttpRequest.Builder get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+	}
+
+	private HttpResponse<Void> send(HttpRequest.Builder request) throws Exception {
+		return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding());
+	}
+
+	private static String sessionCookie(HttpResponse<?> response) {
+		return response.headers().allValues("Set-Cookie").stream()
+			.filter(cookie -> cookie.startsWith("SESSION="))
+			.map(cookie -> cookie.substring(0, cookie.indexOf(';')))
+			.findFirst()
+			.orElseThrow();
+	}
+
+	// Load generation and reporting
+
+	@FunctionalInterface
+	private interface Call {
+		boolean execute(int index) throws Exception;
+	}
+
+	private record Report(int requests, int errors, int sessionsCreated) {
+	}
+
+	private Report run(String name, int requests, Call call) throws Exception {
+		// Warm-up, not measured
+		runCalls(Math.min(requests, 200), call, new long[Math.min(requests, 200)]);
+
+		long heapBefore = usedHeapAfterGc();
+		int sessionsBefore = storedSessions();
+		long[] latencies = new long[requests];
+
+		long start = System.nanoTime();
+		int errors = runCalls(requests, call, latencies);
+		long elapsed = System.nanoTime() - start;
+
+		int sessionsStored = storedSessions();
+		int sessionsCreated = sessionsStored - sessionsBefore;
+		long heapGrowth = usedHeapAfterGc() - heapBefore;
+
+		Arrays.sort(latencies);
+		System.out.printf("%n=== LOAD: %s ===%n", name);
+		System.out.printf("requests=%d concurrency=%d errors=%d%n", requests, CONCURRENCY, errors);
+		System.out.printf("throughput=%.1f req/s%n", requests / (elapsed / 1_000_000_000.0));
+		System.out.printf("latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+			percentile(latencies, 0.50), percentile(latencies, 0.95),
+			percentile(latencies, 0.99), latencies[latencies.length - 1] / 1_000_000.0);
+		System.out.printf("sessions created=%d stored=%d%n", sessionsCreated, sessionsStored);
+		System.out.printf("heap growth=%d KiB%n", heapGrowth / 1024);
+
+		return new Report(requests, errors, sessionsCreated);
+	}
+
+	// Spring Session JDBC does not publish HttpSessionListener events; nothing expires during a run
+	private int storedSessions() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION", Integer.class);
+	}
+
+	private static int runCalls(int requests, Call call, long[] latencies) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+		AtomicInteger errors = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>(requests);
+			for (int i = 0; i < requests; i++) {
+				int index = i;
+				futures.add(executor.submit(() -> {
+					long start = System.nanoTime();
+					boolean ok;
+					try {
+						ok = call.execute(index);
+					} catch (Exception e) {
+						ok = false;
+					}
+					latencies[index] = System.nanoTime() - start;
+					if (!ok) {
+						errors.incrementAndGet();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		return errors.get();
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1_000_000.0;
+	}
+
+	private static long usedHeapAfterGc() throws InterruptedException {
+		System.gc();
+		Thread.sleep(200);
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	@TestConfiguration
+	@Import(LoadProbeController.class)
+	static class LoadTestConfig {
+	}
+
+	// Lightweight endpoint on the /api/** chain, so the numbers exclude Vaadin
+	@RestController
+	static class LoadProbeController {
+
+		@GetMapping("/api/load-probe")
+		String probe(Principal principal) {
+			return principal.getName();
+		}
+	}
+}
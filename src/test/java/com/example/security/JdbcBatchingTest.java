@@ -0,0 +1,130 @@
+package com.example.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.security.user.User;
+import com.example.security.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * Verifies at the JDBC level that the Hibernate batching settings from application.yml
+ * turn the demo seed data and bulk user updates into batches instead of single statements.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = JdbcBatchingTest.BatchingTestConfig.class)
+@DisplayName("JDBC Batching Tests")
+class JdbcBatchingTest {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private StatementCounter statementCounter;
+
+	@BeforeEach
+	void setUp() {
+		statementCounter.reset();
+	}
+
+	@Test
+	@DisplayName("Demo seed data is inserted in a single batch")
+	void testSeedDataIsBatched() throws Exception {
+		new DualAuthSecurityApplication().initDatabase(userRepository).run();
+		entityManager.flush();
+
+		assertEquals(1, statementCounter.batches);
+		assertEquals(4, statementCounter.batchedRows);
+		assertEquals(0, statementCounter.singleUpdates);
+	}
+
+	@Test
+	@DisplayName("Updates of several users are sent as one batch")
+	void testUserUpdatesAreBatched() throws Exception {
+		new DualAuthSecurityApplication().initDatabase(userRepository).run();
+		entityManager.flush();
+		entityManager.clear();
+		statementCounter.reset();
+
+		for (User user : userRepository.findAll()) {
+			user.addRole(User.Role.MANAGER);
+			user.setEnabled(false);
+		}
+		entityManager.flush();
+
+		assertEquals(1, statementCounter.batches);
+		assertEquals(4, statementCounter.batchedRows);
+		assertEquals(0, statementCounter.singleUpdates);
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EntityScan(basePackageClasses = User.class)
+	@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+	static class BatchingTestConfig {
+
+		@Bean
+		static StatementCounter statementCounter() {
+			return new StatementCounter();
+		}
+	}
+
+	/**
+	 * Wraps the DataSource and counts how DML reaches the driver: as batches or one by one.
+	 */
+	static class StatementCounter implements BeanPostProcessor {
+
+		volatile int batches;
+		volatile int batchedRows;
+		volatile int singleUpdates;
+
+		void reset() {
+			batches = 0;
+			batchedRows = 0;
+			singleUpdates = 0;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+		}
+
+		private <T> T proxy(Class<T> type, T target) {
+			return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					Object result;
+					try {
+						result = method.invoke(target, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+					switch (method.getName()) {
+						case "getConnection" -> result = proxy(Connection.class, (Connection) result);
+						case "prepareStatement" -> result = proxy(PreparedStatement.class, (PreparedStatement) result);
+						case "addBatch" -> batchedRows++;
+						case "executeBatch" -> batches++;
+						case "executeUpdate" -> singleUpdates++;
+						default -> { }
+					}
+					return result;
+				}));
+		}
+	}
+}
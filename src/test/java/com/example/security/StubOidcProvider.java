@@ -0,0 +1,173 @@
+package com.example.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal in-process OpenID Connect provider for load tests without Keycloak.
+ * <p>
+ * Serves discovery, JWKS, authorize, token and user-info endpoints on a random
+ * local port. {@code /authorize} logs in the user given as {@code login_hint}
+ * without any UI and redirects back with a one-time code.
+ */
+public class StubOidcProvider {
+
+	private final HttpServer server;
+	private final RSAKey signingKey;
+	private final Map<String, PendingLogin> codes = new ConcurrentHashMap<>();
+	private final Map<String, String> accessTokens = new ConcurrentHashMap<>();
+
+	private record PendingLogin(String username, String nonce, String clientId) {
+	}
+
+	public StubOidcProvider() {
+		try {
+			this.signingKey = new RSAKeyGenerator(2048).keyID("stub-key").generate();
+			this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		} catch (JOSEException | IOException e) {
+			throw new IllegalStateException("Could not start stub OIDC provider", e);
+		}
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/.well-known/openid-configuration", this::discovery);
+		server.createContext("/certs", exchange ->
+			respond(exchange, 200, new JWKSet(signingKey.toPublicJWK()).toString()));
+		server.createContext("/authorize", this::authorize);
+		server.createContext("/token", this::token);
+		server.createContext("/userinfo", this::userInfo);
+		server.start();
+	}
+
+	public String getIssuer() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	public void stop() {
+		server.stop(0);
+	}
+
+	private void discovery(HttpExchange exchange) throws IOException {
+		String issuer = getIssuer();
+		respond(exchange, 200, """
+			{"issuer":"%1$s","authorization_endpoint":"%1$s/authorize","token_endpoint":"%1$s/token",\
+			"userinfo_endpoint":"%1$s/userinfo","jwks_uri":"%1$s/certs","subject_types_supported":["public"],\
+			"response_types_supported":["code"],"id_token_signing_alg_values_supported":["RS256"]}"""
+			.formatted(issuer));
+	}
+
+	private void authorize(HttpExchange exchange) throws IOException {
+		Map<String, String> params = parse(exchange.getRequestURI().getRawQuery());
+		String code = UUID.randomUUID().toString();
+		codes.put(code, new PendingLogin(params.get("login_hint"), params.get("nonce"), params.get("client_id")));
+
+		String location = params.get("redirect_uri")
+			+ "?code=" + code
+			+ "&state=" + URLEncoder.encode(params.get("state"), StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Location", location);
+		exchange.getResponseHeaders().add("Connection", "close");
+		exchange.sendResponseHeaders(302, -1);
+		exchange.close();
+	}
+
+	private void token(HttpExchange exchange) throws IOException {
+		Map<String, String> form = parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+		PendingLogin login = codes.remove(form.get("code"));
+		if (login == null) {
+			respond(exchange, 400, "{\"error\":\"invalid_grant\"}");
+			return;
+		}
+
+		Instant now = Instant.now();
+		JWTClaimsSet claims = new JWTClaimsSet.Builder(userClaims(login.username()))
+			.issuer(getIssuer())
+			.audience(login.clientId())
+			.issueTime(Date.from(now))
+			.expirationTime(Date.from(now.plusSeconds(300)))
+			.claim("nonce", login.nonce())
+			.build();
+		String accessToken = UUID.randomUUID().toString();
+		accessTokens.put(accessToken, login.username());
+
+		respond(exchange, 200, """
+			{"access_token":"%s","token_type":"Bearer","expires_in":300,\
+			"scope":"openid profile email","id_token":"%s"}""".formatted(accessToken, sign(claims)));
+	}
+
+	private void userInfo(HttpExchange exchange) throws IOException {
+		String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+		String username = authorization == null ? null : accessTokens.get(authorization.substring("Bearer ".length()));
+		if (username == null) {
+			respond(exchange, 401, "{\"error\":\"invalid_token\"}");
+			return;
+		}
+		respond(exchange, 200, userClaims(username).toString());
+	}
+
+	private JWTClaimsSet userClaims(String username) {
+		return new JWTClaimsSet.Builder()
+			.subject(username)
+			.claim("preferred_username", username)
+			.claim("email", username + "@example.com")
+			.claim("given_name", "Load")
+			.claim("family_name", username)
+			.build();
+	}
+
+	private String sign(JWTClaimsSet claims) {
+		try {
+			SignedJWT jwt = new SignedJWT(
+				new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+			jwt.sign(new RSASSASigner(signingKey));
+			return jwt.serialize();
+		} catch (JOSEException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Map<String, String> parse(String query) {
+		Map<String, String> params = new HashMap<>();
+		if (query == null || query.isEmpty()) {
+			return params;
+		}
+		for (String pair : query.split("&")) {
+			int separator = pair.indexOf('=');
+			if (separator > 0) {
+				params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+					URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return params;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		// The JDK server may drop idle keep-alive connections under load
+		exchange.getResponseHeaders().add("Connection", "close");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
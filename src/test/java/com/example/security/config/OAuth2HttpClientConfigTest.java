@@ -0,0 +1,84 @@
+package com.example.security.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestOperations;
+
+@DisplayName("OAuth2 HTTP Client Tests")
+class OAuth2HttpClientConfigTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private RestOperations restOperations;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/userinfo", exchange -> {
+            byte[] body = "{\"sub\":\"john.doe\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/hanging", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+
+        OAuth2HttpClientConfig config = new OAuth2HttpClientConfig();
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(config, "http2", true);
+        ClientHttpRequestFactory requestFactory = config.oauth2RequestFactory(config.oauth2HttpClient());
+        restOperations = config.oauth2RestOperations(requestFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    @Test
+    @DisplayName("Plain HTTP/1.1 providers are served despite the HTTP/2 preference")
+    void testHttp11Fallback() {
+        assertEquals("{\"sub\":\"john.doe\"}", restOperations.getForObject(uri("/userinfo"), String.class));
+    }
+
+    @Test
+    @DisplayName("A hanging provider fails the call after the read timeout")
+    void testReadTimeout() {
+        long start = System.nanoTime();
+
+        assertThrows(ResourceAccessException.class, () -> restOperations.getForObject(uri("/hanging"), String.class));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+    }
+}
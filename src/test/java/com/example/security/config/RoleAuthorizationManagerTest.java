@@ -0,0 +1,51 @@
+package com.example.security.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+@DisplayName("Role Authorization Manager Tests")
+class RoleAuthorizationManagerTest {
+
+    private static Authentication authenticated(Set<User.Role> roles) {
+        return new PreAuthenticatedAuthenticationToken("john.doe", null, RoleAuthorities.forRoles(roles));
+    }
+
+    @Test
+    @DisplayName("Role rule grants principals holding any required role")
+    void testAnyRole() {
+        RoleAuthorizationManager admin = RoleAuthorizationManager.anyRole(User.Role.ADMIN);
+
+        assertTrue(admin.authorize(() -> authenticated(Set.of(User.Role.ADMIN, User.Role.USER)), null).isGranted());
+        assertFalse(admin.authorize(() -> authenticated(Set.of(User.Role.USER)), null).isGranted());
+    }
+
+    @Test
+    @DisplayName("Authorities are matched by name, not by instance")
+    void testForeignAuthorityInstances() {
+        Authentication authentication = new PreAuthenticatedAuthenticationToken("svc", null,
+            List.of(new SimpleGrantedAuthority("ROLE_MANAGER"), new SimpleGrantedAuthority("SCOPE_api")));
+
+        assertTrue(RoleAuthorizationManager.anyRole(User.Role.MANAGER).authorize(() -> authentication, null).isGranted());
+    }
+
+    @Test
+    @DisplayName("Anonymous users are denied even without required roles")
+    void testAnonymousDenied() {
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+            List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS")));
+
+        assertFalse(RoleAuthorizationManager.authenticated().authorize(() -> anonymous, null).isGranted());
+        assertTrue(RoleAuthorizationManager.authenticated().authorize(() -> authenticated(Set.of()), null).isGranted());
+    }
+}
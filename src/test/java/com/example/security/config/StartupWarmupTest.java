@@ -0,0 +1,82 @@
+package com.example.security.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts the application with a warm-up user and records, in order, every request the
+ * server answers and the readiness changes: all warm-up requests, including the
+ * authenticated /api one, have to be answered before the application reports ready.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.warmup.iterations=2",
+    "app.warmup.paths=/login",
+    "app.warmup.user-paths=/api/admin/users/warmup/sessions",
+    "app.warmup.user=admin"
+})
+@ActiveProfiles("test")
+@Import(StartupWarmupTest.TimelineConfig.class)
+@DisplayName("Startup Warm-up Tests")
+class StartupWarmupTest {
+
+    // Shared with the listener and filter beans, which exist before the test instance
+    private static final List<String> timeline = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Readiness flips to ACCEPTING_TRAFFIC only after the warm-up requests")
+    void testReadyAfterWarmup() {
+        int ready = timeline.indexOf("ready");
+        List<String> beforeReady = timeline.subList(0, ready);
+
+        // 2 iterations: /login anonymous and as admin, the /api path as admin
+        assertEquals(List.of(
+            "/login 200", "/login 200", "/api/admin/users/warmup/sessions 200",
+            "/login 200", "/login 200", "/api/admin/users/warmup/sessions 200"), beforeReady);
+    }
+
+    @TestConfiguration
+    static class TimelineConfig {
+
+        @Bean
+        ApplicationListener<AvailabilityChangeEvent<ReadinessState>> readinessTimeline() {
+            return event -> {
+                if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                    timeline.add("ready");
+                }
+            };
+        }
+
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        OncePerRequestFilter requestTimeline() {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain filterChain) throws ServletException, IOException {
+                    filterChain.doFilter(request, response);
+                    timeline.add(request.getRequestURI() + " " + response.getStatus());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.security.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CIDR Matcher Tests")
+class CidrMatcherTest {
+
+    private final CidrMatcher matcher = CidrMatcher.compile(List.of(
+        "10.0.0.0/8", "192.168.1.17", " 172.16.0.0/12 ", "2001:db8:1234::/48", "::1", "fe80::/10", ""));
+
+    @Test
+    @DisplayName("IPv4 addresses match by prefix")
+    void testIpv4() {
+        assertTrue(matcher.matches("10.255.0.1"));
+        assertTrue(matcher.matches("172.31.255.255"));
+        assertTrue(matcher.matches("192.168.1.17"));
+
+        assertFalse(matcher.matches("11.0.0.1"));
+        assertFalse(matcher.matches("172.32.0.1"));
+        assertFalse(matcher.matches("192.168.1.18"));
+    }
+
+    @Test
+    @DisplayName("IPv6 addresses match in every textual form")
+    void testIpv6() {
+        assertTrue(matcher.matches("2001:db8:1234:ffff::1"));
+        assertTrue(matcher.matches("2001:0DB8:1234:0:0:0:0:1"));
+        assertTrue(matcher.matches("0:0:0:0:0:0:0:1"));
+        assertTrue(matcher.matches("[::1]"));
+        assertTrue(matcher.matches("fe80::1%eth0"));
+        assertTrue(matcher.matches("::ffff:10.1.2.3"));
+
+        assertFalse(matcher.matches("2001:db8:1235::1"));
+        assertFalse(matcher.matches("::2"));
+        assertFalse(matcher.matches("::ffff:11.1.2.3"));
+        assertFalse(matcher.matches("::"));
+    }
+
+    @Test
+    @DisplayName("Anything that is not an address literal never matches")
+    void testMalformed() {
+        assertFalse(matcher.matches(null));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches("unknown"));
+        assertFalse(matcher.matches("10.0.0"));
+        assertFalse(matcher.matches("10.0.0.256"));
+        assertFalse(matcher.matches("10.0.0.1.5"));
+        assertFalse(matcher.matches("localhost"));
+        assertFalse(matcher.matches("::1::"));
+        assertFalse(matcher.matches("1:2:3:4:5:6:7:8:9"));
+        assertFalse(matcher.matches("2001:db8:12345::1"));
+    }
+
+    @Test
+    @DisplayName("A subrange within a larger string is matched in place")
+    void testSubrange() {
+        String forwardedFor = "203.0.113.7, 10.0.0.2";
+
+        assertTrue(matcher.matches(forwardedFor, 13, forwardedFor.length()));
+        assertFalse(matcher.matches(forwardedFor, 0, 11));
+    }
+
+    @Test
+    @DisplayName("Catch-all ranges and invalid entries")
+    void testCompile() {
+        CidrMatcher all = CidrMatcher.compile(List.of("0.0.0.0/0", "::/0"));
+        assertTrue(all.matches("8.8.8.8"));
+        assertTrue(all.matches("2a00::1"));
+        assertFalse(CidrMatcher.compile(List.of()).matches("127.0.0.1"));
+
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("10.0.0.0/")));
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("proxy.internal")));
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("2001:db8::/129")));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.security.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Failed Header Auth Limiter Tests")
+class FailedHeaderAuthLimiterTest {
+
+    @Test
+    @DisplayName("A client is throttled once its failure budget is used up")
+    void testThrottlePerClient() {
+        FailedHeaderAuthLimiter limiter = new FailedHeaderAuthLimiter(true, 3, 1, 100, 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(limiter.isThrottled("10.0.0.1"));
+            limiter.recordFailure("10.0.0.1", "ghost" + i);
+        }
+
+        assertTrue(limiter.isThrottled("10.0.0.1"));
+        assertFalse(limiter.isThrottled("10.0.0.2"));
+        // One failure per minute refills
+        assertTrue(limiter.retryAfterSeconds("10.0.0.1") > 1);
+    }
+
+    @Test
+    @DisplayName("Tokens refill over time")
+    void testRefill() throws InterruptedException {
+        FailedHeaderAuthLimiter limiter = new FailedHeaderAuthLimiter(true, 1, 600, 100, 10);
+
+        limiter.recordFailure("10.0.0.1", "ghost");
+        assertTrue(limiter.isThrottled("10.0.0.1"));
+        assertEquals(1, limiter.retryAfterSeconds("10.0.0.1"));
+
+        Thread.sleep(150);
+        assertFalse(limiter.isThrottled("10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("A disabled limiter never throttles")
+    void testDisabled() {
+        FailedHeaderAuthLimiter limiter = new FailedHeaderAuthLimiter(false, 1, 1, 100, 10);
+
+        limiter.recordFailure("10.0.0.1", "ghost");
+        limiter.recordFailure("10.0.0.1", "ghost");
+
+        assertFalse(limiter.isThrottled("10.0.0.1"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.security.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.FilterChain;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+@DisplayName("Security Debug Filter Tests")
+class SecurityDebugFilterTest {
+
+    private final FilterChain chain = (request, response) -> ((MockHttpServletResponse) response).setStatus(204);
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SecurityDebugFilter.class);
+    private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        logged.start();
+        logger.addAppender(logged);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logged);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Only sampled requests are traced")
+    void testSampling() throws Exception {
+        SecurityDebugFilter never = new SecurityDebugFilter(0.0, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.BUFFER, 8);
+        SecurityDebugFilter always = new SecurityDebugFilter(1.0, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.BUFFER, 8);
+
+        for (int i = 0; i < 3; i++) {
+            request(never, "/dashboard");
+            request(always, "/dashboard");
+        }
+
+        assertTrue(never.recentRecords().isEmpty());
+        assertEquals(3, always.recentRecords().size());
+    }
+
+    @Test
+    @DisplayName("Excluded and not included paths are not traced")
+    void testExclusion() throws Exception {
+        SecurityDebugFilter filter = new SecurityDebugFilter(1.0, List.of("/api/**", "/dashboard"),
+            List.of("/api/health/**"), SecurityDebugFilter.Output.BUFFER, 8);
+
+        request(filter, "/api/admin/users/alice/sessions");
+        request(filter, "/api/health/ping");
+        request(filter, "/VAADIN/build/bundle.js");
+        request(filter, "/dashboard");
+
+        assertEquals(List.of("/api/admin/users/alice/sessions", "/dashboard"),
+            filter.recentRecords().stream().map(SecurityDebugFilter.TraceRecord::uri).toList());
+    }
+
+    @Test
+    @DisplayName("The buffer keeps the newest records, oldest first, and logs nothing")
+    void testBufferOutput() throws Exception {
+        SecurityDebugFilter filter = new SecurityDebugFilter(1.0, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.BUFFER, 2);
+        SecurityContextHolder.getContext().setAuthentication(
+            new PreAuthenticatedAuthenticationToken("john.doe", null, List.of()));
+
+        request(filter, "/one");
+        request(filter, "/two");
+        request(filter, "/three");
+
+        List<SecurityDebugFilter.TraceRecord> records = filter.recentRecords();
+        assertEquals(List.of("/two", "/three"), records.stream().map(SecurityDebugFilter.TraceRecord::uri).toList());
+        SecurityDebugFilter.TraceRecord last = records.get(1);
+        assertEquals("GET", last.method());
+        assertEquals("HEADER", last.authType());
+        assertEquals("john.doe", last.principal());
+        assertEquals(204, last.status());
+        assertTrue(logged.list.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Log output writes one JSON line per record and keeps no buffer")
+    void testLogOutput() throws Exception {
+        SecurityDebugFilter filter = new SecurityDebugFilter(1.0, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.LOG, 8);
+
+        request(filter, "/say\"hi\"");
+
+        assertTrue(filter.recentRecords().isEmpty());
+        assertEquals(1, logged.list.size());
+        String line = logged.list.get(0).getFormattedMessage();
+        assertTrue(line.startsWith("{\"timestamp\":"), line);
+        assertTrue(line.contains(",\"method\":\"GET\",\"uri\":\"/say\\\"hi\\\"\",\"authType\":\"NONE\","
+            + "\"principal\":null,\"status\":204,\"durationNanos\":"), line);
+    }
+
+    @Test
+    @DisplayName("Both outputs buffer and log the same record")
+    void testBothOutputs() throws Exception {
+        SecurityDebugFilter filter = new SecurityDebugFilter(1.0, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.BOTH, 8);
+
+        request(filter, "/dashboard");
+
+        assertEquals(1, filter.recentRecords().size());
+        assertEquals(1, logged.list.size());
+    }
+
+    private void request(SecurityDebugFilter filter, String uri) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", uri), new MockHttpServletResponse(), chain);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.security.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@DisplayName("Security Trace Endpoint Tests")
+class SecurityTraceEndpointTest {
+
+    @Test
+    @DisplayName("The endpoint returns the filter's buffered records as copies")
+    void testTraces() throws Exception {
+        SecurityDebugFilter filter = new SecurityDebugFilter(1.0, List.of("/**"), List.of(),
+            SecurityDebugFilter.Output.BUFFER, 1);
+        SecurityTraceEndpoint endpoint = new SecurityTraceEndpoint(filter);
+        assertTrue(endpoint.traces().isEmpty());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/first"), new MockHttpServletResponse(),
+            (request, response) -> { });
+        List<SecurityDebugFilter.TraceRecord> first = endpoint.traces();
+        filter.doFilter(new MockHttpServletRequest("POST", "/second"), new MockHttpServletResponse(),
+            (request, response) -> { });
+
+        // The slot was reused, the returned record is unchanged
+        assertEquals("/first", first.get(0).uri());
+        assertEquals(List.of("/second"), endpoint.traces().stream().map(SecurityDebugFilter.TraceRecord::uri).toList());
+        assertEquals("POST", endpoint.traces().get(0).method());
+    }
+}
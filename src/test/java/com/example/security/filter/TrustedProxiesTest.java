@@ -0,0 +1,71 @@
+package com.example.security.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+@DisplayName("Trusted Proxies Tests")
+class TrustedProxiesTest {
+
+    @TempDir
+    Path directory;
+
+    private static MockHttpServletRequest request(String remoteAddr, String... forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        for (String value : forwardedFor) {
+            request.addHeader(TrustedProxies.X_FORWARDED_FOR, value);
+        }
+        return request;
+    }
+
+    @Test
+    @DisplayName("The client is the right-most untrusted X-Forwarded-For hop")
+    void testResolveClient() {
+        TrustedProxies proxies = new TrustedProxies(List.of("10.0.0.0/8"), "", Duration.ZERO, false);
+
+        assertEquals("203.0.113.7", proxies.resolveClient(request("10.0.0.1", "198.51.100.1, 203.0.113.7, 10.0.0.9")));
+        assertEquals("203.0.113.7", proxies.resolveClient(request("10.0.0.1", "198.51.100.1", "203.0.113.7")));
+        // All hops trusted: the farthest one
+        assertEquals("10.1.1.1", proxies.resolveClient(request("10.0.0.1", "10.1.1.1,10.0.0.9")));
+        assertEquals("10.0.0.1", proxies.resolveClient(request("10.0.0.1")));
+        // Forwarded-For from an untrusted peer is ignored
+        assertEquals("192.0.2.1", proxies.resolveClient(request("192.0.2.1", "10.1.1.1")));
+    }
+
+    @Test
+    @DisplayName("The range file is reloaded on change; a broken file keeps the previous ranges")
+    void testReload() throws Exception {
+        Path file = directory.resolve("trusted-proxies.txt");
+        Files.writeString(file, "# nginx tier\n10.0.4.0/24\n");
+        TrustedProxies proxies = new TrustedProxies(List.of("127.0.0.1"), file.toString(), Duration.ZERO, false);
+
+        assertTrue(proxies.isTrusted("127.0.0.1"));
+        assertTrue(proxies.isTrusted("10.0.4.20"));
+        assertFalse(proxies.isTrusted("10.0.5.20"));
+        assertFalse(proxies.reload());
+
+        Files.writeString(file, "10.0.5.0/24 # new tier\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        assertTrue(proxies.reload());
+        assertFalse(proxies.isTrusted("10.0.4.20"));
+        assertTrue(proxies.isTrusted("10.0.5.20"));
+
+        Files.writeString(file, "10.0.6.0/33\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(20)));
+        assertThrows(IllegalArgumentException.class, proxies::reload);
+        assertTrue(proxies.isTrusted("10.0.5.20"));
+    }
+}
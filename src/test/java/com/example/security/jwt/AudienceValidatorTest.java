@@ -0,0 +1,35 @@
+package com.example.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+@DisplayName("JWT Audience Validator Tests")
+class AudienceValidatorTest {
+
+    private final AudienceValidator validator = new AudienceValidator(List.of("spring-boot-app"));
+
+    private static Jwt.Builder token(String username) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .claim("preferred_username", username)
+            .issuedAt(Instant.now());
+    }
+
+    @Test
+    @DisplayName("Tokens for this client are accepted by aud or azp, others are refused")
+    void testAudience() {
+        assertFalse(validator.validate(token("svc").audience(List.of("spring-boot-app")).build()).hasErrors());
+        assertFalse(validator.validate(token("svc").audience(List.of("account")).claim("azp", "spring-boot-app")
+            .build()).hasErrors());
+
+        assertTrue(validator.validate(token("svc").audience(List.of("account")).claim("azp", "reporting-ui")
+            .build()).hasErrors());
+        assertTrue(validator.validate(token("svc").build()).hasErrors());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@DisplayName("Caching JWT Decoder Tests")
+class CachingJwtDecoderTest {
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    private final JwtDecoder delegate = token -> {
+        decodes.incrementAndGet();
+        if (token.startsWith("bad")) {
+            throw new BadJwtException("invalid token");
+        }
+        Instant now = Instant.now();
+        return Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .claim("preferred_username", "svc")
+            .issuedAt(now)
+            .expiresAt(now.plus(Duration.ofMinutes(10)))
+            .build();
+    };
+
+    @Test
+    @DisplayName("Same token is verified only once")
+    void testCachedDecode() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, Duration.ofMinutes(5), 100);
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertSame(first, second);
+        assertEquals(2, decodes.get());
+    }
+
+    @Test
+    @DisplayName("Invalid tokens are rejected on every call")
+    void testInvalidTokenNotCached() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, Duration.ofMinutes(5), 100);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+
+        assertEquals(2, decodes.get());
+        assertEquals(0, decoder.size());
+    }
+}
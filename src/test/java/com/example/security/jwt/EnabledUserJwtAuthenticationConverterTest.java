@@ -0,0 +1,44 @@
+package com.example.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+@DisplayName("Enabled User JWT Authentication Converter Tests")
+class EnabledUserJwtAuthenticationConverterTest {
+
+    private static Jwt token(String username) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .claim("preferred_username", username)
+            .issuedAt(Instant.now())
+            .build();
+    }
+
+    @Test
+    @DisplayName("Users disabled in the database are refused, unknown users keep their token roles")
+    void testDisabledLocalUser() {
+        JwtAuthenticationConverter delegate = new JwtAuthenticationConverter();
+        delegate.setPrincipalClaimName("preferred_username");
+        EnabledUserJwtAuthenticationConverter converter = new EnabledUserJwtAuthenticationConverter(delegate,
+            username -> org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("")
+                .disabled(username.startsWith("disabled"))
+                .build());
+        EnabledUserJwtAuthenticationConverter withoutLocalUsers = new EnabledUserJwtAuthenticationConverter(delegate,
+            username -> {
+                throw new UsernameNotFoundException(username);
+            });
+
+        assertTrue(converter.convert(token("john.doe")).isAuthenticated());
+        assertThrows(DisabledException.class, () -> converter.convert(token("disabled.admin")));
+        assertTrue(withoutLocalUsers.convert(token("svc")).isAuthenticated());
+    }
+}
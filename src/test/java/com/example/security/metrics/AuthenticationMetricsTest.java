@@ -0,0 +1,52 @@
+package com.example.security.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.security.metrics.AuthenticationMetrics.Method;
+import com.example.security.metrics.AuthenticationMetrics.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Authentication Metrics Tests")
+class AuthenticationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthenticationMetrics metrics = new AuthenticationMetrics(registry);
+
+    @Test
+    @DisplayName("Attempt counters exist up front with lower-case method and outcome tags")
+    void testAttemptCounters() {
+        assertEquals(0, attempts("header", "session_reuse"));
+        assertEquals(0, attempts("oidc", "oidc_failure"));
+        // Outcomes that cannot happen for a method are not registered
+        assertNull(registry.find("auth.attempts").tags("method", "oidc", "outcome", "throttled").counter());
+
+        metrics.recordAttempt(Method.OIDC, Outcome.OIDC_FAILURE, System.nanoTime());
+        metrics.recordAttempt(Method.OIDC, Outcome.SUCCESS, System.nanoTime());
+        metrics.recordAttempt(Method.HEADER, Outcome.DISABLED, System.nanoTime());
+
+        assertEquals(1, attempts("oidc", "oidc_failure"));
+        assertEquals(1, attempts("oidc", "success"));
+        assertEquals(1, attempts("header", "disabled"));
+        assertEquals(0, attempts("header", "success"));
+        assertEquals(2, registry.get("auth.total").tag("method", "oidc").timer().count());
+        assertEquals(1, registry.get("auth.total").tag("method", "header").timer().count());
+    }
+
+    @Test
+    @DisplayName("Lookup and user-info timers record without tags")
+    void testTimers() {
+        metrics.recordUserLookup(System.nanoTime());
+        metrics.recordUserInfoFetch(System.nanoTime());
+        metrics.recordUserInfoFetch(System.nanoTime());
+
+        assertEquals(1, registry.get("auth.user.lookup").timer().count());
+        assertEquals(2, registry.get("auth.oidc.userinfo").timer().count());
+    }
+
+    private double attempts(String method, String outcome) {
+        return registry.get("auth.attempts").tags("method", method, "outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.security.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.security.user.CustomOAuth2User;
+import com.example.security.user.OAuth2LoginCache;
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("Compact Session Serializer Tests")
+class CompactSessionSerializerTest {
+
+    private final OAuth2LoginCache loginCache = new OAuth2LoginCache(Duration.ofMinutes(30), 100);
+    private final CompactSessionSerializer serializer =
+        new CompactSessionSerializer(getClass().getClassLoader(), loginCache);
+
+    private static SecurityContext oidcLogin(UUID userId) throws Exception {
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", "2f1c0a52-7d1e-4c55-9d0b-3a8c4f0e1b6d");
+        claims.put("iss", URI.create("http://localhost:4444/realms/spring-app-realm").toURL());
+        claims.put("aud", List.of("spring-boot-app"));
+        claims.put("iat", issuedAt);
+        claims.put("exp", issuedAt.plusSeconds(300));
+        claims.put("email_verified", true);
+        claims.put("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization")));
+        claims.put("preferred_username", "jane");
+        OidcIdToken idToken = new OidcIdToken("eyJhbGciOiJSUzI1NiJ9.payload.signature",
+            issuedAt, issuedAt.plusSeconds(300), claims);
+        OidcUserInfo userInfo = new OidcUserInfo(Map.of("sub", claims.get("sub"), "email", "jane@company.com"));
+
+        User user = new User("jane", "jane@company.com");
+        user.setId(userId);
+        user.setFirstName("Jane");
+        user.setLastName("Doe");
+        user.setRoles(Set.of(User.Role.USER, User.Role.MANAGER));
+        user.setLastLogin(LocalDateTime.now());
+        user.setAuthMethod("OAUTH2_KEYCLOAK");
+
+        CustomOAuth2User principal = new CustomOAuth2User(
+            new DefaultOidcUser(List.of(), idToken, userInfo, "preferred_username"), user);
+        OAuth2AuthenticationToken token =
+            new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "keycloak");
+        token.setDetails(new WebAuthenticationDetails("10.0.0.7", "f3c2"));
+        return new SecurityContextImpl(token);
+    }
+
+    @Test
+    @DisplayName("An OIDC login round-trips through the compact record and the login cache")
+    void testOidcLogin() throws Exception {
+        SecurityContext context = oidcLogin(UUID.randomUUID());
+        loginCache.put((CustomOAuth2User) context.getAuthentication().getPrincipal());
+        byte[] bytes = serializer.serialize(context);
+
+        assertEquals(1, bytes[0]);
+        assertTrue(bytes.length < 160, "record size " + bytes.length);
+        SecurityContext restored = assertInstanceOf(SecurityContext.class, serializer.deserialize(bytes));
+        OAuth2AuthenticationToken token = assertInstanceOf(OAuth2AuthenticationToken.class, restored.getAuthentication());
+        OAuth2AuthenticationToken original = (OAuth2AuthenticationToken) context.getAuthentication();
+        assertEquals("keycloak", token.getAuthorizedClientRegistrationId());
+        assertEquals(original.getAuthorities(), token.getAuthorities());
+        assertEquals(original.getDetails(), token.getDetails());
+        assertTrue(token.isAuthenticated());
+
+        CustomOAuth2User principal = assertInstanceOf(CustomOAuth2User.class, token.getPrincipal());
+        CustomOAuth2User originalPrincipal = (CustomOAuth2User) original.getPrincipal();
+        assertEquals("jane", principal.getName());
+        assertEquals("Jane Doe", principal.getFullName());
+        assertEquals(originalPrincipal.getClaims(), principal.getClaims());
+        assertEquals(originalPrincipal.getAttributes(), principal.getAttributes());
+        assertEquals(originalPrincipal.getIdToken().getTokenValue(), principal.getIdToken().getTokenValue());
+        assertEquals(originalPrincipal.getUser().getId(), principal.getUser().getId());
+        assertEquals(originalPrincipal.getUser().getLastLogin(), principal.getUser().getLastLogin());
+        assertEquals(RoleAuthorities.forRoles(Set.of(User.Role.USER, User.Role.MANAGER)), principal.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("A login unknown to this node is rebuilt from the summary in the session")
+    void testLoginFromOtherNode() throws Exception {
+        byte[] bytes = serializer.serialize(oidcLogin(null));
+        CompactSessionSerializer otherNode = new CompactSessionSerializer(
+            getClass().getClassLoader(), new OAuth2LoginCache(Duration.ofMinutes(30), 100));
+
+        SecurityContext restored = assertInstanceOf(SecurityContext.class, otherNode.deserialize(bytes));
+        CustomOAuth2User principal = assertInstanceOf(CustomOAuth2User.class,
+            restored.getAuthentication().getPrincipal());
+        assertEquals("jane", principal.getName());
+        assertEquals("jane@company.com", principal.getEmail());
+        assertEquals("Jane Doe", principal.getFullName());
+        assertEquals(RoleAuthorities.forRoles(Set.of(User.Role.USER, User.Role.MANAGER)), principal.getAuthorities());
+
+        assertNull(principal.getIdToken());
+        assertEquals(Map.of("preferred_username", "jane", "email", "jane@company.com",
+            "given_name", "Jane", "family_name", "Doe"), principal.getAttributes());
+        assertEquals("Jane Doe", principal.getUser().getFullName());
+        assertEquals(Set.of(User.Role.USER, User.Role.MANAGER), principal.getUser().getRoles());
+        // The stand-in user carries no authorization change that a save would publish
+        assertEquals(List.of(), ReflectionTestUtils.invokeMethod(principal.getUser(), "domainEvents"));
+    }
+
+    @Test
+    @DisplayName("Other attributes, and rows written by the default serializer, use Java serialization")
+    void testJavaSerialization() {
+        SecurityContext context = new SecurityContextImpl(
+            UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of()));
+        byte[] bytes = serializer.serialize(context);
+
+        assertEquals((byte) 0xAC, bytes[0]);
+        assertEquals("admin", ((SecurityContext) serializer.deserialize(bytes)).getAuthentication().getName());
+        assertEquals(Map.of("a", 1), serializer.deserialize(serializer.serialize(new LinkedHashMap<>(Map.of("a", 1)))));
+    }
+
+    @Test
+    @DisplayName("An unreadable attribute is dropped instead of failing the request")
+    void testUnreadable() throws Exception {
+        byte[] bytes = serializer.serialize(oidcLogin(UUID.randomUUID()));
+
+        assertNull(serializer.deserialize(new byte[] { 1, 9 }));
+        // Earlier record with all claims
+        assertNull(serializer.deserialize(new byte[] { 1, 1, 1 }));
+        assertNull(serializer.deserialize(Arrays.copyOf(bytes, bytes.length / 2)));
+        assertNull(serializer.deserialize(new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5, 1 }));
+    }
+}
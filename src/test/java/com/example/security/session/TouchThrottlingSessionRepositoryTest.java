@@ -0,0 +1,31 @@
+package com.example.security.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+
+@DisplayName("Touch Throttling Session Repository Tests")
+class TouchThrottlingSessionRepositoryTest {
+
+    @Test
+    @DisplayName("The last-access time only moves once the interval has passed")
+    void testLastAccessedTime() {
+        MapSession session = new MapSession();
+        Instant created = session.getLastAccessedTime();
+        TouchThrottlingSessionRepository.ThrottledSession throttled =
+            new TouchThrottlingSessionRepository.ThrottledSession(session, Duration.ofMinutes(1));
+
+        throttled.setLastAccessedTime(created.plusSeconds(59));
+        assertEquals(created, session.getLastAccessedTime());
+
+        throttled.setLastAccessedTime(created.plusSeconds(60));
+        assertEquals(created.plusSeconds(60), session.getLastAccessedTime());
+
+        throttled.setAttribute("a", 1);
+        assertEquals(1, (Integer) session.getAttribute("a"));
+    }
+}
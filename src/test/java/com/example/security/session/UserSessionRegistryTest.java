@@ -0,0 +1,112 @@
+package com.example.security.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.security.user.RoleAuthorities;
+import com.example.security.user.User;
+import com.example.security.user.UserAuthorizationChangedEvent;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("User Session Registry Tests")
+class UserSessionRegistryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:sessions;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        registry = new UserSessionRegistry(jdbcTemplate, "SPRING_SESSION");
+        user("alice", RoleAuthorities.bit(User.Role.USER), true);
+        user("bob", RoleAuthorities.bit(User.Role.ADMIN) | RoleAuthorities.bit(User.Role.USER), true);
+        user("carol", RoleAuthorities.bit(User.Role.MANAGER), false);
+    }
+
+    private void user(String username, int roleMask, boolean enabled) {
+        jdbcTemplate.update("INSERT INTO users (id, username, username_lower, role_mask, enabled) VALUES (?, ?, ?, ?, ?)",
+            UUID.randomUUID(), username, username, roleMask, enabled);
+    }
+
+    private void session(String sessionId, String username, long lastAccess) {
+        jdbcTemplate.update("INSERT INTO spring_session VALUES (?, ?, ?, ?, ?, ?, ?)", UUID.randomUUID().toString(),
+            sessionId, lastAccess, lastAccess, 1800, lastAccess + 1_800_000, username);
+    }
+
+    private List<String> remaining() {
+        return jdbcTemplate.queryForList("SELECT TRIM(session_id) FROM spring_session ORDER BY session_id", String.class);
+    }
+
+    @Test
+    @DisplayName("Sessions are invalidated per user, per list of users, per role and on disabling")
+    void testInvalidate() {
+        long now = System.currentTimeMillis();
+        session("a1", "alice", now);
+        session("a2", "alice", now);
+        session("b1", "bob", now);
+        session("c1", "carol", now);
+        session("anonymous", null, now);
+
+        assertEquals(2, registry.invalidateUser("alice"));
+        assertEquals(List.of("anonymous", "b1", "c1"), remaining());
+
+        assertEquals(1, registry.invalidateRole(User.Role.ADMIN));
+        assertEquals(List.of("anonymous", "c1"), remaining());
+
+        registry.onUserAuthorizationChanged(new UserAuthorizationChangedEvent("carol"));
+        assertEquals(List.of("anonymous"), remaining());
+
+        // alice is still enabled: only a lost role ends her sessions
+        session("a4", "alice", now);
+        registry.onUserAuthorizationChanged(new UserAuthorizationChangedEvent("alice", false));
+        assertEquals(List.of("a4", "anonymous"), remaining());
+        registry.onUserAuthorizationChanged(new UserAuthorizationChangedEvent("alice", true));
+        assertEquals(List.of("anonymous"), remaining());
+
+        session("a3", "alice", now);
+        session("b2", "bob", now);
+        assertEquals(2, registry.invalidateUsers(List.of("alice", "bob", "dave")));
+        assertEquals(List.of("anonymous"), remaining());
+    }
+
+    @Test
+    @DisplayName("A login beyond the per-user limit replaces the least recently used sessions")
+    void testSessionLimit() {
+        // Real session ids fill the CHAR(36) column
+        String recent = UUID.randomUUID().toString();
+        String current = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        session(UUID.randomUUID().toString(), "alice", now - 30_000);
+        session(UUID.randomUUID().toString(), "alice", now - 60_000);
+        session(recent, "alice", now - 10_000);
+        session(current, "alice", now);
+        session("b1", "bob", now - 90_000);
+
+        SessionLimitStrategy strategy = new SessionLimitStrategy();
+        ReflectionTestUtils.setField(strategy, "sessionRegistry", registry);
+        ReflectionTestUtils.setField(strategy, "maxSessionsPerUser", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ReflectionTestUtils.setField(request.getSession(), "id", current);
+
+        strategy.onAuthentication(new TestingAuthenticationToken("alice", null), request, new MockHttpServletResponse());
+
+        assertEquals(List.of(current, recent), registry.sessionIds("alice"));
+        assertEquals(3, remaining().size());
+    }
+}
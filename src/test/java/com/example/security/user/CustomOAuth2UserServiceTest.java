@@ -0,0 +1,291 @@
+package com.example.security.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.security.metrics.AuthenticationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.ResourceAccessException;
+
+@DataJpaTest
+@ContextConfiguration(classes = CustomOAuth2UserServiceTest.OAuth2UserTestConfig.class)
+// The logins run on their own threads and commit like in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Custom OAuth2 User Service Tests")
+class CustomOAuth2UserServiceTest {
+
+    private static final int LOGINS = 2;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CountDownLatch lookupsDone = new CountDownLatch(LOGINS);
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private LoginActivityRecorder loginActivityRecorder;
+    private SimpleMeterRegistry meterRegistry;
+    private CustomOAuth2UserService service;
+
+    @BeforeEach
+    void setUp() {
+        // Long interval so recorded logins stay pending and can be counted
+        loginActivityRecorder = new LoginActivityRecorder(jdbcTemplate, transactionManager,
+            true, Duration.ofHours(1), 1, false);
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CustomOAuth2UserService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "loginActivityRecorder", loginActivityRecorder);
+        ReflectionTestUtils.setField(service, "authenticationMetrics",
+            new AuthenticationMetrics(meterRegistry));
+        ReflectionTestUtils.setField(service, "oauth2LoginCache",
+            new OAuth2LoginCache(Duration.ofMinutes(5), 100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE username_lower IN ('jane.roe', 'admin')");
+    }
+
+    @Test
+    @DisplayName("Concurrent first logins create one user and both are recorded")
+    void testConcurrentFirstLogin() throws Exception {
+        ReflectionTestUtils.setField(service, "userRepository", lookupsMeetFirst(userRepository));
+        OAuth2UserRequest userRequest = userRequest();
+        OAuth2User oauth2User = oauth2User();
+
+        ExecutorService executor = Executors.newFixedThreadPool(LOGINS);
+        try {
+            List<Future<OAuth2User>> logins = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                logins.add(executor.submit(() -> service.processOAuth2User(userRequest, oauth2User)));
+            }
+            for (Future<OAuth2User> login : logins) {
+                assertEquals("jane.roe", login.get(10, TimeUnit.SECONDS).getName());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username = 'jane.roe'", Integer.class));
+        // The winner's login is part of the insert, the other one goes through the recorder
+        assertEquals(1, loginActivityRecorder.pendingCount());
+        assertEquals("OAUTH2_KEYCLOAK", userRepository.findByUsername("jane.roe").orElseThrow().getAuthMethod());
+    }
+
+    @Test
+    @DisplayName("A disabled user is rejected and the login is not recorded")
+    void testDisabledUserIsRejected() {
+        User user = new User("jane.roe", "jane.roe@example.com");
+        user.addRole(User.Role.USER);
+        user.setEnabled(false);
+        userRepository.save(user);
+
+        OAuth2AuthenticationException e = assertThrows(OAuth2AuthenticationException.class,
+            () -> service.processOAuth2User(userRequest(), oauth2User()));
+
+        assertEquals(CustomOAuth2UserService.ACCOUNT_DISABLED, e.getError().getErrorCode());
+        assertEquals(0, loginActivityRecorder.pendingCount());
+    }
+
+    @Test
+    @DisplayName("A login that matches a local user only by case is rejected")
+    void testCaseVariantIsAConflict() {
+        User admin = new User("admin", "admin@company.com");
+        admin.addRole(User.Role.ADMIN);
+        userRepository.save(admin);
+
+        OAuth2AuthenticationException e = assertThrows(OAuth2AuthenticationException.class,
+            () -> service.processOAuth2User(userRequest(), oauth2User("Admin", "admin@idp.example.com")));
+
+        assertEquals(CustomOAuth2UserService.ACCOUNT_CONFLICT, e.getError().getErrorCode());
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE LOWER(username) = 'admin'", Integer.class));
+        assertEquals(0, loginActivityRecorder.pendingCount());
+    }
+
+    @Test
+    @DisplayName("The exact username wins over a case variant")
+    void testExactUsernameWins() {
+        userRepository.save(new User("Jane.Roe", "jane@company.com"));
+        User exact = userRepository.save(new User("jane.roe", "jane.roe@example.com"));
+
+        CustomOAuth2User principal = (CustomOAuth2User) service.processOAuth2User(userRequest(), oauth2User());
+
+        assertEquals(exact.getId(), principal.getUser().getId());
+    }
+
+    @Test
+    @DisplayName("A user-info timeout is counted as an OIDC failure")
+    void testUserInfoTimeoutIsCounted() {
+        ReflectionTestUtils.setField(service, "oidcUserService", new OidcUserService() {
+            @Override
+            public OidcUser loadUser(OidcUserRequest userRequest) {
+                throw new ResourceAccessException("Read timed out");
+            }
+        });
+
+        assertThrows(ResourceAccessException.class, () -> service.loadUser(oidcUserRequest()));
+
+        assertEquals(1, attempts("oidc_failure"));
+        assertEquals(1, meterRegistry.get("auth.oidc.userinfo").timer().count());
+    }
+
+    @Test
+    @DisplayName("A database error during the login is counted as an OIDC failure")
+    void testDatabaseErrorIsCounted() {
+        ReflectionTestUtils.setField(service, "oidcUserService", new OidcUserService() {
+            @Override
+            public OidcUser loadUser(OidcUserRequest userRequest) {
+                return new DefaultOidcUser(Set.of(), userRequest.getIdToken(), "preferred_username");
+            }
+        });
+        ReflectionTestUtils.setField(service, "userRepository", Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.loadUser(oidcUserRequest()));
+
+        assertEquals(1, attempts("oidc_failure"));
+        assertEquals(0, attempts("success"));
+    }
+
+    @Test
+    @DisplayName("A disabled user is counted as disabled, not as a failure")
+    void testDisabledUserIsCounted() {
+        User user = new User("jane.roe", "jane.roe@example.com");
+        user.setEnabled(false);
+        userRepository.save(user);
+        ReflectionTestUtils.setField(service, "oidcUserService", new OidcUserService() {
+            @Override
+            public OidcUser loadUser(OidcUserRequest userRequest) {
+                return new DefaultOidcUser(Set.of(), userRequest.getIdToken(), "preferred_username");
+            }
+        });
+
+        assertThrows(OAuth2AuthenticationException.class, () -> service.loadUser(oidcUserRequest()));
+
+        assertEquals(1, attempts("disabled"));
+        assertEquals(0, attempts("oidc_failure"));
+    }
+
+    private double attempts(String outcome) {
+        return meterRegistry.get("auth.attempts").tags("method", "oidc", "outcome", outcome).counter().count();
+    }
+
+    /**
+     * Holds the first lookups until every login has made one, so all of them miss
+     * the user and race for the insert.
+     */
+    private UserRepository lookupsMeetFirst(UserRepository target) {
+        return (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (method.getName().equals("findByUsernameOrEmail") && lookups.incrementAndGet() <= LOGINS) {
+                    lookupsDone.countDown();
+                    lookupsDone.await(5, TimeUnit.SECONDS);
+                }
+                return result;
+            });
+    }
+
+    private static OAuth2User oauth2User() {
+        return oauth2User("jane.roe", "jane.roe@example.com");
+    }
+
+    private static OAuth2User oauth2User(String username, String email) {
+        return new DefaultOAuth2User(Set.of(new SimpleGrantedAuthority("OAUTH2_USER")), Map.of(
+            "preferred_username", username,
+            "email", email,
+            "given_name", "Jane",
+            "family_name", "Roe"), "preferred_username");
+    }
+
+    private static OidcUserRequest oidcUserRequest() {
+        OAuth2UserRequest userRequest = userRequest();
+        OidcIdToken idToken = new OidcIdToken("id-token", Instant.now(), Instant.now().plusSeconds(3600), Map.of(
+            "sub", "jane",
+            "preferred_username", "jane.roe",
+            "email", "jane.roe@example.com"));
+        return new OidcUserRequest(userRequest.getClientRegistration(), userRequest.getAccessToken(), idToken);
+    }
+
+    private static OAuth2UserRequest userRequest() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("keycloak")
+            .clientId("spring-boot-app")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .authorizationUri("http://localhost/auth")
+            .tokenUri("http://localhost/token")
+            .userInfoUri("http://localhost/userinfo")
+            .userNameAttributeName("preferred_username")
+            .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+            "token", Instant.now(), Instant.now().plusSeconds(3600));
+        return new OAuth2UserRequest(registration, accessToken);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class OAuth2UserTestConfig {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.security.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@DisplayName("Login Activity Recorder Tests")
+class LoginActivityRecorderTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private LoginActivityRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:login-activity;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+        jdbcTemplate.execute("CREATE TABLE users (username VARCHAR(255) PRIMARY KEY, last_login TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO users (username) VALUES ('john.doe'), ('admin')");
+
+        // Long interval so only explicit flushes write
+        recorder = new LoginActivityRecorder(jdbcTemplate,
+            new DataSourceTransactionManager(dataSource), true, Duration.ofHours(1), 1, false);
+    }
+
+    @Test
+    @DisplayName("Repeated logins are coalesced to the latest timestamp")
+    void testCoalescing() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime latest = first.plusMinutes(5);
+
+        recorder.recordLogin("john.doe", first);
+        recorder.recordLogin("john.doe", latest);
+        recorder.recordLogin("john.doe", first.plusMinutes(1));
+        recorder.recordLogin("admin", first);
+
+        assertEquals(2, recorder.pendingCount());
+        assertEquals(2, recorder.flush());
+        assertEquals(0, recorder.pendingCount());
+        assertEquals(Timestamp.valueOf(latest), jdbcTemplate.queryForObject(
+            "SELECT last_login FROM users WHERE username = 'john.doe'", Timestamp.class));
+        assertEquals(Timestamp.valueOf(first), jdbcTemplate.queryForObject(
+            "SELECT last_login FROM users WHERE username = 'admin'", Timestamp.class));
+    }
+
+    @Test
+    @DisplayName("Nothing is written before a flush")
+    void testWriteBehind() {
+        recorder.recordLogin("john.doe", LocalDateTime.now());
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE last_login IS NOT NULL", Integer.class));
+    }
+}
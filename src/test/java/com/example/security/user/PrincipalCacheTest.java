@@ -0,0 +1,134 @@
+package com.example.security.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+@DisplayName("Principal Cache Tests")
+class PrincipalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserDetails load(String username) {
+        loads.incrementAndGet();
+        return org.springframework.security.core.userdetails.User.withUsername(username)
+            .password("")
+            .authorities("ROLE_USER")
+            .build();
+    }
+
+    @Test
+    @DisplayName("Repeated lookups hit the loader only once")
+    void testReadThrough() {
+        PrincipalCache cache = new PrincipalCache(true, Duration.ofMinutes(5), 100, Duration.ofSeconds(30));
+
+        UserDetails first = cache.get("john.doe", this::load);
+        UserDetails second = cache.get("john.doe", this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Concurrent misses share one load that runs outside the cache lock")
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        PrincipalCache cache = new PrincipalCache(true, Duration.ofMinutes(5), 100, Duration.ofSeconds(30));
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<UserDetails> first = executor.submit(() -> cache.get("john.doe", username -> {
+                loaderEntered.countDown();
+                await(releaseLoader);
+                return load(username);
+            }));
+            loaderEntered.await();
+
+            // Other keys are served while a load is in flight
+            assertEquals("admin", cache.get("admin", this::load).getUsername());
+
+            Future<UserDetails> second = executor.submit(() -> cache.get("john.doe", this::load));
+            releaseLoader.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(2, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Authorization change event evicts the cached principal")
+    void testInvalidationOnAuthorizationChange() {
+        PrincipalCache cache = new PrincipalCache(true, Duration.ofMinutes(5), 100, Duration.ofSeconds(30));
+        cache.get("john.doe", this::load);
+
+        cache.onUserAuthorizationChanged(new UserAuthorizationChangedEvent("john.doe"));
+        cache.get("john.doe", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Unknown users are not cached as principals")
+    void testNotFoundIsNotCached() {
+        PrincipalCache cache = new PrincipalCache(true, Duration.ofMinutes(5), 100, Duration.ofSeconds(30));
+
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", username -> {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Unknown users fail without a lookup until the user is created")
+    void testNegativeCache() {
+        PrincipalCache cache = new PrincipalCache(true, Duration.ofMinutes(5), 100, Duration.ofSeconds(30));
+        AtomicInteger misses = new AtomicInteger();
+        Function<String, UserDetails> missing = username -> {
+            misses.incrementAndGet();
+            throw new UsernameNotFoundException("User not found: " + username);
+        };
+
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", missing));
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", missing));
+        assertEquals(1, misses.get());
+
+        cache.onUserAuthorizationChanged(new UserAuthorizationChangedEvent("ghost"));
+        cache.get("ghost", this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Disabled cache always delegates to the loader")
+    void testDisabled() {
+        PrincipalCache cache = new PrincipalCache(false, Duration.ofMinutes(5), 100, Duration.ofSeconds(30));
+
+        cache.get("john.doe", this::load);
+        cache.get("john.doe", this::load);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.security.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+@DisplayName("Role Authorities Tests")
+class RoleAuthoritiesTest {
+
+    @Test
+    @DisplayName("Every role combination maps to its canonical authorities")
+    void testAllCombinations() {
+        for (int mask = 0; mask < 1 << User.Role.values().length; mask++) {
+            EnumSet<User.Role> roles = RoleAuthorities.fromMask(mask);
+            Set<String> expected = roles.stream().map(User.Role::getAuthority).collect(Collectors.toSet());
+            Set<String> actual = RoleAuthorities.forMask(mask).stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+
+            assertEquals(mask, RoleAuthorities.toMask(roles));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    @DisplayName("Same role combination shares one immutable set")
+    void testShared() {
+        Set<GrantedAuthority> first = RoleAuthorities.forRoles(Set.of(User.Role.ADMIN, User.Role.USER));
+        Set<GrantedAuthority> second = RoleAuthorities.forRoles(EnumSet.of(User.Role.USER, User.Role.ADMIN));
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, first::clear);
+    }
+}
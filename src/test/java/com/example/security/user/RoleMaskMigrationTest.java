@@ -0,0 +1,58 @@
+package com.example.security.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@DisplayName("Role Mask Migration Tests")
+class RoleMaskMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:role-mask-migration;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+
+        // Schema as Hibernate left it, before the roles moved into users.role_mask
+        Flyway.configure().dataSource(dataSource).target("4").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    @DisplayName("Legacy roles are folded into the bitmask column")
+    void testRolesFoldedIntoMask() {
+        UUID admin = insertUser("admin", "ADMIN", "USER");
+        UUID manager = insertUser("jane.manager", "MANAGER", "RETIRED");
+        UUID nobody = insertUser("nobody");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertEquals(RoleAuthorities.bit(User.Role.ADMIN) | RoleAuthorities.bit(User.Role.USER), roleMask(admin));
+        assertEquals(RoleAuthorities.bit(User.Role.MANAGER), roleMask(manager));
+        assertEquals(0, roleMask(nobody));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'user_roles'", Integer.class));
+    }
+
+    private UUID insertUser(String username, String... roles) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, username, enabled) VALUES (?, ?, TRUE)", id, username);
+        for (String role : roles) {
+            jdbcTemplate.update("INSERT INTO user_roles (user_id, roles) VALUES (?, ?)", id, role);
+        }
+        return id;
+    }
+
+    private int roleMask(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT role_mask FROM users WHERE id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.security.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.security.session.UserSessionRegistry;
+import com.example.security.user.UserProvisioningService.Format;
+import com.example.security.user.UserProvisioningService.Progress;
+import com.example.security.user.UserProvisioningService.Report;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@DisplayName("User Provisioning Service Tests")
+class UserProvisioningServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserProvisioningService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:provisioning;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id, username, username_lower, role_mask, enabled) VALUES (?, ?, ?, ?, ?)",
+            UUID.randomUUID(), "john.doe", "john.doe", RoleAuthorities.bit(User.Role.USER), true);
+
+        service = new UserProvisioningService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            new PrincipalCache(true, Duration.ofMinutes(5), 100, Duration.ofSeconds(30)),
+            new UserSessionRegistry(jdbcTemplate, "SPRING_SESSION"), new ObjectMapper(), 2, 10);
+    }
+
+    @Test
+    @DisplayName("CSV rows are inserted or updated in chunks, bad rows are reported")
+    void testCsvImport() throws Exception {
+        String csv = """
+            username,email,first_name,last_name,roles,enabled
+            alice,Alice@Example.com,Alice,"Smith, Jr.",ADMIN|USER,true
+            john.doe,john.doe@company.com,John,Doe,MANAGER,false
+            ,nobody@example.com,No,Body,USER,true
+            bob,bob@example.com,Bob,Builder,WIZARD,true
+            carol,carol@example.com,Carol,,,
+            """;
+        List<Progress> progress = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO spring_session VALUES (?, ?, ?, ?, ?, ?, ?)",
+            UUID.randomUUID().toString(), UUID.randomUUID().toString(), now, now, 1800, now + 1_800_000, "john.doe");
+
+        Report report = service.provision(new StringReader(csv), Format.CSV, progress::add);
+
+        assertEquals(5, report.processed());
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.updated());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(4L, 5L), report.errors().stream().map(UserProvisioningService.RowError::line).toList());
+        assertFalse(report.errorsTruncated());
+        assertEquals(2, progress.size());
+
+        assertEquals("Smith, Jr.", jdbcTemplate.queryForObject(
+            "SELECT last_name FROM users WHERE username = 'alice'", String.class));
+        assertEquals("alice@example.com", jdbcTemplate.queryForObject(
+            "SELECT email_lower FROM users WHERE username = 'alice'", String.class));
+        assertEquals(RoleAuthorities.bit(User.Role.ADMIN) | RoleAuthorities.bit(User.Role.USER), roleMask("alice"));
+        assertEquals(RoleAuthorities.bit(User.Role.MANAGER), roleMask("john.doe"));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+            "SELECT enabled FROM users WHERE username = 'john.doe'", Boolean.class));
+        // Disabled by the import, so logged out
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spring_session", Integer.class));
+        assertEquals(RoleAuthorities.bit(User.Role.USER), roleMask("carol"));
+        assertNull(jdbcTemplate.queryForObject("SELECT last_name FROM users WHERE username = 'carol'", String.class));
+    }
+
+    @Test
+    @DisplayName("JSON lines accept role arrays and report malformed lines")
+    void testJsonLinesImport() throws Exception {
+        String jsonLines = """
+            {"username": "dave", "email": "dave@example.com", "roles": ["MANAGER", "USER"]}
+            {"username": "erin", "enabled": false}
+            {not json}
+            """;
+
+        Report report = service.provision(new StringReader(jsonLines), Format.JSON_LINES, progress -> { });
+
+        assertEquals(3, report.processed());
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.failed());
+        assertEquals(RoleAuthorities.bit(User.Role.MANAGER) | RoleAuthorities.bit(User.Role.USER), roleMask("dave"));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+            "SELECT enabled FROM users WHERE username = 'erin'", Boolean.class));
+    }
+
+    @Test
+    @DisplayName("An import that takes a role away logs the user out, one that adds a role does not")
+    void testRoleDowngradeLogsOut() throws Exception {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO spring_session VALUES (?, ?, ?, ?, ?, ?, ?)",
+            UUID.randomUUID().toString(), UUID.randomUUID().toString(), now, now, 1800, now + 1_800_000, "john.doe");
+
+        service.provision(new StringReader("username,roles\njohn.doe,USER|MANAGER\n"), Format.CSV, progress -> { });
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spring_session", Integer.class));
+
+        service.provision(new StringReader("username,roles\njohn.doe,MANAGER\n"), Format.CSV, progress -> { });
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spring_session", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Columns missing from the input leave an existing user unchanged")
+    void testPartialUpdateKeepsColumns() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (id, username, username_lower, email, role_mask, enabled) "
+            + "VALUES (?, ?, ?, ?, ?, ?)", UUID.randomUUID(), "root", "root", "root@company.com",
+            RoleAuthorities.bit(User.Role.ADMIN), false);
+
+        Report report = service.provision(new StringReader("username\nroot\n"), Format.CSV, progress -> { });
+
+        assertEquals(1, report.updated());
+        assertEquals(RoleAuthorities.bit(User.Role.ADMIN), roleMask("root"));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+            "SELECT enabled FROM users WHERE username = 'root'", Boolean.class));
+        assertEquals("root@company.com", jdbcTemplate.queryForObject(
+            "SELECT email FROM users WHERE username = 'root'", String.class));
+    }
+
+    @Test
+    @DisplayName("A user listed twice in one chunk keeps the last row and reports the earlier one")
+    void testDuplicateRowsReported() throws Exception {
+        String csv = """
+            username,roles
+            frank,ADMIN
+            frank,MANAGER
+            """;
+
+        Report report = service.provision(new StringReader(csv), Format.CSV, progress -> { });
+
+        assertEquals(2, report.processed());
+        assertEquals(1, report.inserted());
+        assertEquals(1, report.failed());
+        assertEquals(2L, report.errors().get(0).line());
+        assertEquals(RoleAuthorities.bit(User.Role.MANAGER), roleMask("frank"));
+    }
+
+    private int roleMask(String username) {
+        return jdbcTemplate.queryForObject("SELECT role_mask FROM users WHERE username = ?", Integer.class, username);
+    }
+}